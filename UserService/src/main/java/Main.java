@@ -1,12 +1,113 @@
 import console.ConsoleApp;
+import http.HttpApp;
+import loadtest.LoadReport;
+import loadtest.LoadTest;
+import loadtest.LoadTestConfig;
+import userservice.admission.AdmissionControlledUserService;
+import userservice.dao.InMemoryUserDAO;
+import userservice.dao.UserDAO;
+import userservice.dao.UserDAOImpl;
+import userservice.dao.UserPartitionManager;
+import userservice.outbox.FileUserChangeSink;
+import userservice.outbox.OutboxRelay;
+import userservice.search.UserSearchIndex;
+import userservice.service.EmailFilter;
+import userservice.service.QueryStatsUserService;
 import userservice.service.UserService;
 import userservice.service.UserServiceImpl;
 import util.HibernateUtil;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
 public class Main {
-    public static void main(String[] args) {
-        UserService userService = new UserServiceImpl();
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("loadtest")) {
+            runLoadTest(LoadTestConfig.parse(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+
+        startPartitioningIfEnabled();
+        UserService userService = createUserService();
+
+        if (args.length > 0 && args[0].equals("http")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            // Сверх размера пула запросы не ждут соединения, а сразу получают 503
+            int maxConcurrent = Integer.getInteger("userservice.http.maxConcurrent", HibernateUtil.getConnectionPoolSize());
+            HttpApp httpApp = new HttpApp(userService, port, maxConcurrent);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                httpApp.stop();
+                HibernateUtil.shutdown();
+            }));
+            httpApp.start();
+            return;
+        }
+
         ConsoleApp consoleApp = new ConsoleApp(userService);
         consoleApp.start();
     }
-}
\ No newline at end of file
+
+    private static UserService createUserService() {
+        // Outbox пишется только вместе с relay, который его разбирает
+        String outboxFile = System.getProperty("userservice.outbox.file");
+        UserDAO userDAO = new UserDAOImpl(outboxFile != null);
+        EmailFilter emailFilter = Boolean.getBoolean("userservice.emailFilter")
+                ? EmailFilter.bootstrap(userDAO, Long.getLong("userservice.emailFilter.expected", 1_000_000), 0.01)
+                : null;
+        if (outboxFile != null) {
+            startOutboxRelay(Path.of(outboxFile));
+        }
+        UserSearchIndex searchIndex = Boolean.getBoolean("userservice.search") ? UserSearchIndex.build(userDAO) : null;
+        UserService userService = new QueryStatsUserService(new UserServiceImpl(userDAO, emailFilter, searchIndex));
+        if (!Boolean.getBoolean("userservice.admission")) {
+            return userService;
+        }
+        // По умолчанию отсеки делят весь пул соединений Hibernate
+        AdmissionControlledUserService admission = new AdmissionControlledUserService(userService,
+                Integer.getInteger("userservice.admission.maxConcurrent", HibernateUtil.getConnectionPoolSize()),
+                Duration.ofMillis(Integer.getInteger("userservice.admission.maxWaitMillis", 200)));
+        admission.startReporting(Duration.ofMinutes(1));
+        Runtime.getRuntime().addShutdownHook(new Thread(admission::close));
+        return admission;
+    }
+
+    private static void startOutboxRelay(Path file) {
+        OutboxRelay relay = new OutboxRelay(List.of(new FileUserChangeSink(file)));
+        relay.start(Duration.ofSeconds(1));
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::close));
+    }
+
+    private static void runLoadTest(LoadTestConfig config) throws Exception {
+        if (!config.isInMemory()) {
+            startPartitioningIfEnabled();
+        }
+        UserService userService = config.isInMemory()
+                ? new UserServiceImpl(new InMemoryUserDAO())
+                : new QueryStatsUserService(new UserServiceImpl());
+        LoadReport report = new LoadTest(userService, config).run();
+        System.out.print(report.toText());
+        if (config.getJsonFile() != null) {
+            Files.writeString(Path.of(config.getJsonFile()), report.toJson());
+            System.out.println("JSON report written to " + config.getJsonFile());
+        }
+        if (!config.isInMemory()) {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void startPartitioningIfEnabled() {
+        if (!Boolean.getBoolean("userservice.partitioning")) {
+            return;
+        }
+        UserPartitionManager partitionManager = new UserPartitionManager(HibernateUtil.getSessionFactory(),
+                Integer.getInteger("userservice.partitioning.futureMonths", 3),
+                Integer.getInteger("userservice.partitioning.retentionMonths", 24),
+                Boolean.getBoolean("userservice.partitioning.reserveArchivedEmails"));
+        partitionManager.install();
+        // Архивация скрывает старых пользователей из выборок, поэтому включается отдельно
+        partitionManager.startMaintenance(Duration.ofHours(6), Boolean.getBoolean("userservice.partitioning.archive"));
+    }
+}
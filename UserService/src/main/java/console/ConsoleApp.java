@@ -1,6 +1,7 @@
 package console;
 
 import model.User;
+import userservice.search.UserSearchResult;
 import userservice.service.UserService;
 import userservice.service.UserServiceImpl;
 import util.HibernateUtil;
@@ -22,6 +23,9 @@ public class ConsoleApp {
     }
 
     public void start() {
+        // Пункт поиска показывается, только если сервис построил поисковый индекс
+        boolean searchEnabled = userService.isSearchEnabled();
+        int exitOption = searchEnabled ? 7 : 6;
         while (true) {
             System.out.println("\n=== User Management System ===");
             System.out.println("1. Create User");
@@ -29,23 +33,27 @@ public class ConsoleApp {
             System.out.println("3. Find User by ID");
             System.out.println("4. Update User");
             System.out.println("5. Delete User");
-            System.out.println("6. Exit");
+            if (searchEnabled) {
+                System.out.println("6. Search Users");
+            }
+            System.out.println(exitOption + ". Exit");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
             scanner.nextLine();
 
+            if (choice == exitOption) {
+                System.out.println("Exiting application...");
+                HibernateUtil.shutdown();
+                System.exit(0);
+            }
             switch (choice) {
                 case 1 -> handleCreateUser();
                 case 2 -> handleViewAllUsers();
                 case 3 -> handleFindUserById();
                 case 4 -> handleUpdateUser();
                 case 5 -> handleDeleteUser();
-                case 6 -> {
-                    System.out.println("Exiting application...");
-                    HibernateUtil.shutdown();
-                    System.exit(0);
-                }
+                case 6 -> handleSearchUsers();
                 default -> System.out.println("Invalid option! Try again.");
             }
         }
@@ -146,6 +154,22 @@ public class ConsoleApp {
         }
     }
 
+    private void handleSearchUsers() {
+        try {
+            System.out.print("Enter name or email (part or misspelled): ");
+            String query = scanner.nextLine().trim();
+
+            List<UserSearchResult> results = userService.searchUsers(query, 20);
+            if (results.isEmpty()) {
+                System.out.println("No users found.");
+                return;
+            }
+            results.forEach(r -> System.out.printf("%.2f  ID: %d, %s <%s>%n", r.score(), r.id(), r.name(), r.email()));
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+
     public static void main(String[] args) {
         new ConsoleApp().start();
     }
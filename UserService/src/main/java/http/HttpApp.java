@@ -0,0 +1,349 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import userservice.admission.OverloadedException;
+import userservice.dao.DuplicateEmailException;
+import userservice.search.UserSearchResult;
+import userservice.service.UserService;
+import util.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP/JSON интерфейс к UserService на встроенном в JDK HttpServer:
+ * <pre>
+ * POST   /users        {"name":..., "email":..., "age":...}
+ * GET    /users        потоковый JSON-массив
+ * GET    /users?q=...&amp;limit=20   нечёткий поиск по имени и email (501, если поиск выключен)
+ * GET    /users/{id}
+ * PUT    /users/{id}   {"name":..., "email":..., "age":...}, все поля необязательны
+ * DELETE /users/{id}
+ * </pre>
+ * Запросы сверх лимита одновременной обработки и отклонённые контролем допуска сервиса
+ * получают 503 с заголовком Retry-After.
+ */
+public class HttpApp {
+    private static final Logger logger = LoggerFactory.getLogger(HttpApp.class);
+
+    private static final String USERS_PATH = "/users";
+
+    static {
+        // Заголовки и тело уходят отдельными сегментами: без TCP_NODELAY алгоритм Нейгла вместе
+        // с отложенным ACK клиента добавляет ~40 мс к каждому ответу на keep-alive соединении.
+        // HttpServer читает свойство один раз, при первом создании сервера в JVM
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final UserService userService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public HttpApp(UserService userService, int port, int maxConcurrentRequests) throws IOException {
+        this.userService = userService;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        // Потоков больше лимита, чтобы отказ 503 отправлялся сразу, а не ждал в очереди пула
+        this.executor = Executors.newFixedThreadPool(maxConcurrentRequests + 4);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(USERS_PATH, this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("HTTP server listening on port {}", getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!permits.tryAcquire()) {
+            drain(exchange);
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendJson(exchange, 503, error("Server is busy"));
+            return;
+        }
+        try {
+            route(exchange);
+        } catch (OverloadedException e) {
+            long retryAfterSeconds = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+            exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+            sendJson(exchange, 503, error(e.getMessage()));
+        } catch (DuplicateEmailException e) {
+            sendJson(exchange, 409, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            sendJson(exchange, 400, error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error handling {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            sendJson(exchange, 500, error("Internal server error"));
+        } finally {
+            permits.release();
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Long id = null;
+        if (path.length() > USERS_PATH.length() + 1) {
+            id = parseId(path.substring(USERS_PATH.length() + 1));
+        } else if (!path.equals(USERS_PATH) && !path.equals(USERS_PATH + "/")) {
+            sendJson(exchange, 404, error("Not found"));
+            return;
+        }
+
+        if (id == null) {
+            switch (method) {
+                case "GET" -> {
+                    String query = queryParam(exchange, "q");
+                    if (query != null) {
+                        handleSearch(exchange, query);
+                    } else {
+                        handleList(exchange);
+                    }
+                }
+                case "POST" -> handleCreate(exchange);
+                default -> sendJson(exchange, 405, error("Method not allowed"));
+            }
+        } else {
+            switch (method) {
+                case "GET" -> handleGet(exchange, id);
+                case "PUT" -> handleUpdate(exchange, id);
+                case "DELETE" -> handleDelete(exchange, id);
+                default -> sendJson(exchange, 405, error("Method not allowed"));
+            }
+        }
+    }
+
+    private void handleCreate(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Integer age = intField(body, "age");
+        if (age == null) {
+            throw new IllegalArgumentException("Age is required");
+        }
+        User user = userService.createUser(stringField(body, "name"), stringField(body, "email"), age);
+        exchange.getResponseHeaders().set("Location", USERS_PATH + "/" + user.getId());
+        sendJson(exchange, 201, Json.user(user));
+    }
+
+    private void handleList(HttpExchange exchange) throws IOException {
+        drain(exchange);
+        JsonArrayStream array = new JsonArrayStream(exchange);
+        try {
+            // Пользователи пишутся по мере чтения из БД, без загрузки всего списка в память
+            userService.forEachUser(user -> array.write(Json.user(user)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        array.finish();
+    }
+
+    private void handleSearch(HttpExchange exchange, String query) throws IOException {
+        drain(exchange);
+        if (!userService.isSearchEnabled()) {
+            sendJson(exchange, 501, error("User search is not enabled"));
+            return;
+        }
+        String limitParam = queryParam(exchange, "limit");
+        int limit;
+        try {
+            limit = limitParam == null ? 20 : Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (UserSearchResult result : userService.searchUsers(query, limit)) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(result.id())
+                    .append(",\"name\":").append(Json.quote(result.name()))
+                    .append(",\"email\":").append(Json.quote(result.email()))
+                    .append(",\"score\":").append(String.format(Locale.ROOT, "%.4f", result.score()))
+                    .append('}');
+        }
+        sendJson(exchange, 200, sb.append(']').toString());
+    }
+
+    private void handleGet(HttpExchange exchange, Long id) throws IOException {
+        drain(exchange);
+        Optional<User> user = userService.getUserById(id);
+        if (user.isPresent()) {
+            sendJson(exchange, 200, Json.user(user.get()));
+        } else {
+            sendJson(exchange, 404, error("User not found with ID: " + id));
+        }
+    }
+
+    private void handleUpdate(HttpExchange exchange, Long id) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        boolean updated = userService.updateUser(id,
+                stringField(body, "name"), stringField(body, "email"), intField(body, "age"));
+        Optional<User> user = userService.getUserById(id);
+        if (updated) {
+            sendJson(exchange, 200, Json.user(user.orElseThrow()));
+        } else if (user.isPresent()) {
+            // Пользователь есть, но изменение отклонено хранилищем (например, email занят параллельно)
+            sendJson(exchange, 409, error("User update was rejected: " + id));
+        } else {
+            sendJson(exchange, 404, error("User not found with ID: " + id));
+        }
+    }
+
+    private void handleDelete(HttpExchange exchange, Long id) throws IOException {
+        drain(exchange);
+        if (userService.deleteUser(id)) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendJson(exchange, 404, error("User not found with ID: " + id));
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return Json.parseObject(body.isBlank() ? "{}" : body);
+        }
+    }
+
+    // Непрочитанное тело запроса не даёт HttpServer переиспользовать соединение (keep-alive)
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid user ID");
+        }
+    }
+
+    private static String stringField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    private static Integer intField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long number) || number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an integer");
+        }
+        return number.intValue();
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    /**
+     * Chunked JSON-массив. Заголовки отправляются с первым элементом, поэтому сбой БД до первой
+     * строки ещё превращается в обычный ответ об ошибке.
+     */
+    private static final class JsonArrayStream {
+        private final HttpExchange exchange;
+        private Writer writer;
+        private boolean empty = true;
+
+        JsonArrayStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        void write(String element) {
+            try {
+                open();
+                if (!empty) {
+                    writer.write(',');
+                }
+                writer.write(element);
+                empty = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            open();
+            writer.write(']');
+            writer.close();
+        }
+
+        private void open() throws IOException {
+            if (writer != null) {
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            // Длина 0 — chunked: размер ответа заранее неизвестен
+            exchange.sendResponseHeaders(200, 0);
+            writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192);
+            writer.write('[');
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package loadtest;
+
+import org.HdrHistogram.Histogram;
+import util.Json;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+    private final long elapsedNanos;
+    private final Map<Operation, Histogram> histograms;
+    private final Map<Operation, Long> errors;
+
+    LoadReport(LoadTestConfig config, long elapsedNanos, Map<Operation, Histogram> histograms, Map<Operation, Long> errors) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    /**
+     * Число успешных вызовов; отказы учитываются только в {@link #getErrors(Operation)}.
+     */
+    public long getCount(Operation op) {
+        return histograms.get(op).getTotalCount();
+    }
+
+    public long getErrors(Operation op) {
+        return errors.get(op);
+    }
+
+    public double getThroughput(Operation op) {
+        return getCount(op) / (elapsedNanos / 1e9);
+    }
+
+    public double getPercentileMillis(Operation op, double percentile) {
+        return histograms.get(op).getValueAtPercentile(percentile) / 1e6;
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%s model, %d workers%s, %.1f s%n",
+                config.getRate() > 0 ? "Open" : "Closed", config.getWorkers(),
+                config.getRate() > 0 ? String.format(Locale.ROOT, ", target %.1f ops/s", config.getRate()) : "",
+                elapsedNanos / 1e9));
+        sb.append(String.format(Locale.ROOT, "%-8s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        long total = 0;
+        for (Operation op : Operation.values()) {
+            if (getCount(op) == 0) {
+                continue;
+            }
+            total += getCount(op);
+            sb.append(String.format(Locale.ROOT, "%-8s %9d %7d %10.1f", op.name().toLowerCase(Locale.ROOT),
+                    getCount(op), getErrors(op), getThroughput(op)));
+            for (double p : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, " %9.2f", getPercentileMillis(op, p)));
+            }
+            sb.append(String.format(Locale.ROOT, " %9.2f%n", histograms.get(op).getMaxValue() / 1e6));
+        }
+        sb.append(String.format(Locale.ROOT, "total    %9d %7s %10.1f%n", total, "", total / (elapsedNanos / 1e9)));
+        return sb.toString();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"model\":").append(Json.quote(config.getRate() > 0 ? "open" : "closed"))
+                .append(",\"workers\":").append(config.getWorkers())
+                .append(",\"targetRate\":").append(config.getRate())
+                .append(",\"elapsedSeconds\":").append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1e9))
+                .append(",\"operations\":{");
+        boolean first = true;
+        for (Operation op : Operation.values()) {
+            if (getCount(op) == 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(Json.quote(op.name().toLowerCase(Locale.ROOT))).append(":{")
+                    .append("\"count\":").append(getCount(op))
+                    .append(",\"errors\":").append(getErrors(op))
+                    .append(",\"throughput\":").append(String.format(Locale.ROOT, "%.2f", getThroughput(op)))
+                    .append(",\"latencyMicros\":{");
+            for (double p : PERCENTILES) {
+                sb.append(Json.quote(percentileKey(p))).append(':')
+                        .append(TimeUnit.NANOSECONDS.toMicros(histograms.get(op).getValueAtPercentile(p)))
+                        .append(',');
+            }
+            sb.append("\"max\":").append(TimeUnit.NANOSECONDS.toMicros(histograms.get(op).getMaxValue()))
+                    .append("}}");
+        }
+        return sb.append("}}").toString();
+    }
+
+    // 50.0 -> p50, 99.9 -> p99.9
+    static String percentileKey(double percentile) {
+        return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,213 @@
+package loadtest;
+
+import org.HdrHistogram.Histogram;
+import userservice.service.UserService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный прогон UserService с заданной смесью операций.
+ * <p>
+ * В открытой модели (rate &gt; 0) у каждого запроса есть плановое время старта, и задержка
+ * считается от него, а не от фактического старта. Поэтому время ожидания свободного
+ * потока входит в задержку, и результат не искажается coordinated omission.
+ */
+public class LoadTest {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final UserService userService;
+    private final LoadTestConfig config;
+    private final Operation[] weightedOps;
+    private final IdPool ids = new IdPool();
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    public LoadTest(UserService userService, LoadTestConfig config) {
+        this.userService = userService;
+        this.config = config;
+        this.weightedOps = expandMix(config.getMix());
+    }
+
+    public LoadReport run() throws InterruptedException {
+        seed();
+        if (!config.getWarmup().isZero()) {
+            System.out.println("Warming up for " + config.getWarmup().toSeconds() + " s");
+            runPhase(config.getWarmup().toNanos());
+        }
+        System.out.println("Running " + (config.getRate() > 0 ? "open" : "closed") + " model for "
+                + config.getDuration().toSeconds() + " s with " + config.getWorkers() + " workers"
+                + (config.getRate() > 0 ? " at " + config.getRate() + " ops/s" : ""));
+        long start = System.nanoTime();
+        List<Worker> workers = runPhase(config.getDuration().toNanos());
+        long elapsed = System.nanoTime() - start;
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            histograms.put(op, new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(op, 0L);
+        }
+        for (Worker worker : workers) {
+            worker.histograms.forEach((op, h) -> histograms.get(op).add(h));
+            worker.errors.forEach((op, count) -> errors.merge(op, count, Long::sum));
+        }
+        return new LoadReport(config, elapsed, histograms, errors);
+    }
+
+    private void seed() {
+        for (int i = 0; i < config.getSeedUsers(); i++) {
+            ids.add(userService.createUser("Load User", nextEmail(), 30).getId());
+        }
+    }
+
+    private List<Worker> runPhase(long durationNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        AtomicLong slots = new AtomicLong();
+        long intervalNanos = config.getRate() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / config.getRate()) : 0;
+
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < config.getWorkers(); i++) {
+            Worker worker = new Worker(start, end, intervalNanos, slots);
+            Thread thread = new Thread(worker, "load-worker-" + i);
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return workers;
+    }
+
+    private final class Worker implements Runnable {
+        private final long start;
+        private final long end;
+        private final long intervalNanos;
+        private final AtomicLong slots;
+        private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        private Worker(long start, long end, long intervalNanos, AtomicLong slots) {
+            this.start = start;
+            this.end = end;
+            this.intervalNanos = intervalNanos;
+            this.slots = slots;
+            for (Operation op : Operation.values()) {
+                histograms.put(op, new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (true) {
+                long intended;
+                if (intervalNanos > 0) {
+                    intended = start + slots.getAndIncrement() * intervalNanos;
+                    if (intended >= end) {
+                        return;
+                    }
+                    long wait;
+                    while ((wait = intended - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    intended = System.nanoTime();
+                    if (intended >= end) {
+                        return;
+                    }
+                }
+
+                Operation op = weightedOps[random.nextInt(weightedOps.length)];
+                try {
+                    execute(op, random);
+                } catch (Exception e) {
+                    // Задержка отказов не смешивается с задержкой успешных вызовов
+                    errors.merge(op, 1L, Long::sum);
+                    continue;
+                }
+                long latency = System.nanoTime() - intended;
+                histograms.get(op).recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+            }
+        }
+    }
+
+    private void execute(Operation op, ThreadLocalRandom random) {
+        switch (op) {
+            case CREATE -> ids.add(userService.createUser("Load User", nextEmail(), 18 + random.nextInt(60)).getId());
+            case GET -> {
+                long id = ids.random(random);
+                if (id > 0) {
+                    userService.getUserById(id);
+                }
+            }
+            case UPDATE -> {
+                long id = ids.random(random);
+                if (id > 0) {
+                    userService.updateUser(id, null, null, 18 + random.nextInt(60));
+                }
+            }
+            case DELETE -> {
+                long id = ids.take(random);
+                if (id > 0) {
+                    userService.deleteUser(id);
+                }
+            }
+            case LIST -> userService.getAllUsers();
+        }
+    }
+
+    private String nextEmail() {
+        return "load-" + runId + "-" + emailSequence.incrementAndGet() + "@example.com";
+    }
+
+    private static Operation[] expandMix(Map<Operation, Integer> mix) {
+        List<Operation> ops = new ArrayList<>();
+        mix.forEach((op, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                ops.add(op);
+            }
+        });
+        if (ops.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+        return ops.toArray(new Operation[0]);
+    }
+
+    // Идентификаторы созданных пользователей для get/update/delete
+    private static final class IdPool {
+        private long[] ids = new long[1024];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized long random(ThreadLocalRandom random) {
+            return size == 0 ? 0 : ids[random.nextInt(size)];
+        }
+
+        synchronized long take(ThreadLocalRandom random) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = random.nextInt(size);
+            long id = ids[index];
+            ids[index] = ids[--size];
+            return id;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного прогона. Разбирается из аргументов вида key=value:
+ * <pre>
+ * workers=16 duration=60 warmup=5 rate=0 seed=1000 dao=db json=report.json
+ * mix=create:10,get:60,update:15,delete:5,list:10
+ * </pre>
+ * При rate &gt; 0 используется открытая модель с фиксированной частотой запросов,
+ * иначе — замкнутая модель, где каждый из workers потоков шлёт запросы без пауз.
+ */
+public class LoadTestConfig {
+    private int workers = 16;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(5);
+    private double rate;
+    private int seedUsers = 1000;
+    private boolean inMemory;
+    private String jsonFile;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    public LoadTestConfig() {
+        mix.put(Operation.CREATE, 10);
+        mix.put(Operation.GET, 60);
+        mix.put(Operation.UPDATE, 15);
+        mix.put(Operation.DELETE, 5);
+        mix.put(Operation.LIST, 10);
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "workers" -> config.setWorkers(Integer.parseInt(value));
+                case "duration" -> config.setDuration(Duration.ofSeconds(Long.parseLong(value)));
+                case "warmup" -> config.setWarmup(Duration.ofSeconds(Long.parseLong(value)));
+                case "rate" -> config.setRate(Double.parseDouble(value));
+                case "seed" -> config.setSeedUsers(Integer.parseInt(value));
+                case "dao" -> config.setInMemory(switch (value) {
+                    case "db" -> false;
+                    case "memory" -> true;
+                    default -> throw new IllegalArgumentException("Unknown dao: " + value);
+                });
+                case "json" -> config.setJsonFile(value);
+                case "mix" -> config.setMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + key);
+            }
+        }
+        return config;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be positive");
+        }
+        this.workers = workers;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("Rate must not be negative");
+        }
+        this.rate = rate;
+    }
+
+    public int getSeedUsers() {
+        return seedUsers;
+    }
+
+    public void setSeedUsers(int seedUsers) {
+        this.seedUsers = seedUsers;
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    public void setInMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public String getJsonFile() {
+        return jsonFile;
+    }
+
+    public void setJsonFile(String jsonFile) {
+        this.jsonFile = jsonFile;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected op:weight, got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package loadtest;
+
+public enum Operation {
+    CREATE, GET, UPDATE, DELETE, LIST
+}
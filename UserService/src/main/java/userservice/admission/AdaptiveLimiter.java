@@ -0,0 +1,246 @@
+package userservice.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отсек (bulkhead) с адаптивным лимитом одновременных вызовов и ограниченной очередью ожидания.
+ * <p>
+ * Лимит подстраивается по градиенту задержки: долгая скользящая средняя служит базовой линией,
+ * короткая — текущим состоянием. Рост короткой средней относительно долгой означает, что
+ * запросы стоят в очереди к БД, и лимит уменьшается; при стабильной задержке он растёт на
+ * sqrt(limit). Сбой вызова (таймаут, ошибка соединения) мультипликативно снижает лимит.
+ * <p>
+ * Запрос сверх лимита ждёт в очереди FIFO не дольше maxWait; при полной очереди или истёкшем
+ * сроке он сразу отклоняется с {@link OverloadedException}.
+ */
+public class AdaptiveLimiter {
+    private static final double LONG_WINDOW = 500;
+    private static final double SHORT_WINDOW = 10;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private double longRtt;
+    private double shortRtt;
+    private int inFlight;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong shedQueueFull = new AtomicLong();
+    private final AtomicLong shedTimeout = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                           int maxQueue, Duration maxWait) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit || maxQueue < 0 || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Invalid limiter parameters");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Занимает место в отсеке, при необходимости дожидаясь его в очереди.
+     * Возвращает момент допуска, который передаётся в {@link #release(long, boolean)}.
+     */
+    public long acquire() {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                admitted.incrementAndGet();
+                return System.nanoTime();
+            }
+            if (waiters.size() >= maxQueue) {
+                shedQueueFull.incrementAndGet();
+                throw new OverloadedException(name, "wait queue is full", retryAfterMillis());
+            }
+            waiter = new Waiter(lock.newCondition());
+            waiters.addLast(waiter);
+            queued.incrementAndGet();
+
+            long remaining = maxWaitNanos;
+            while (!waiter.granted) {
+                if (remaining <= 0) {
+                    waiters.remove(waiter);
+                    shedTimeout.incrementAndGet();
+                    throw new OverloadedException(name, "wait deadline exceeded", retryAfterMillis());
+                }
+                try {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    if (waiter.granted) {
+                        // Место уже выдано: возвращаем его, чтобы не потерять
+                        inFlight--;
+                        grantWaiters();
+                    } else {
+                        waiters.remove(waiter);
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new OverloadedException(name, "interrupted while waiting", retryAfterMillis());
+                }
+            }
+            admitted.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Освобождает место и учитывает задержку вызова. dropped = true для сбоев, говорящих о
+     * перегрузке БД; ошибки валидации и прочие ошибки вызывающего передаются как успех.
+     */
+    public void release(long startNanos, boolean dropped) {
+        long rtt = System.nanoTime() - startNanos;
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight--;
+            if (dropped) {
+                this.dropped.incrementAndGet();
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else {
+                onSample(rtt, inFlightBefore);
+            }
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSample(long rtt, int inFlightBefore) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+            shortRtt = rtt;
+            return;
+        }
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        // После спада задержки базовая линия быстро догоняет текущую, иначе лимит долго не растёт
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        // Отсек загружен меньше чем наполовину: задержка не говорит о пределе, лимит не трогаем
+        if (inFlightBefore * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    private void grantWaiters() {
+        while (!waiters.isEmpty() && inFlight < currentLimit()) {
+            Waiter waiter = waiters.pollFirst();
+            waiter.granted = true;
+            inFlight++;
+            waiter.condition.signal();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    // Подсказка клиенту: примерно столько займёт разбор текущей очереди
+    private long retryAfterMillis() {
+        double rtt = shortRtt == 0 ? TimeUnit.MILLISECONDS.toNanos(100) : shortRtt;
+        double rounds = (double) (waiters.size() + 1) / Math.max(1, currentLimit()) + 1;
+        return Math.max(1, (long) (rtt * rounds / 1_000_000));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    public long getQueued() {
+        return queued.get();
+    }
+
+    public long getShed() {
+        return shedQueueFull.get() + shedTimeout.get();
+    }
+
+    public long getShedQueueFull() {
+        return shedQueueFull.get();
+    }
+
+    public long getShedTimeout() {
+        return shedTimeout.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{limit=" + getLimit() + ", inFlight=" + getInFlight() + ", queueDepth=" + getQueueDepth()
+                + ", admitted=" + getAdmitted() + ", queued=" + getQueued()
+                + ", shedQueueFull=" + getShedQueueFull() + ", shedTimeout=" + getShedTimeout()
+                + ", dropped=" + getDropped() + "}";
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
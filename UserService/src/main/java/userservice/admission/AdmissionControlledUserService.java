@@ -0,0 +1,157 @@
+package userservice.admission;
+
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import userservice.search.UserSearchResult;
+import userservice.service.UserService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Контроль допуска перед UserService: чтения и записи проходят через отдельные отсеки,
+ * поэтому медленные записи не вытесняют чтения и наоборот. При перегрузке вызов отклоняется
+ * с {@link OverloadedException}, не дожидаясь сессии БД.
+ * <p>
+ * Сбоем вызова считается только выброшенное исключение. UserDAOImpl.update и deleteById при ошибке
+ * БД возвращают false, что неотличимо от отсутствия пользователя, поэтому такие сбои не снижают
+ * лимит отсека записей мультипликативно; на них реагирует лишь градиент задержки.
+ */
+public class AdmissionControlledUserService implements UserService, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlledUserService.class);
+
+    private final UserService delegate;
+    private final AdaptiveLimiter reads;
+    private final AdaptiveLimiter writes;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "admission-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AdmissionControlledUserService(UserService delegate, AdaptiveLimiter reads, AdaptiveLimiter writes) {
+        this.delegate = delegate;
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    /**
+     * Отсеки с параметрами по умолчанию, делящие между собой connections соединений пула:
+     * четверть (не меньше одного) получают записи, остальное — чтения. Сумма лимитов не превышает
+     * размер пула, иначе встроенный пул Hibernate отказывал бы сразу, а лимитер принимал бы
+     * собственную перегрузку за сбои БД.
+     */
+    public AdmissionControlledUserService(UserService delegate, int connections, Duration maxWait) {
+        this(delegate, bulkhead("reads", connections - writeConnections(connections), 2, maxWait),
+                bulkhead("writes", writeConnections(connections), 1, maxWait));
+    }
+
+    private static int writeConnections(int connections) {
+        if (connections < 2) {
+            throw new IllegalArgumentException("At least 2 connections are required");
+        }
+        return Math.max(1, connections / 4);
+    }
+
+    private static AdaptiveLimiter bulkhead(String name, int maxLimit, int queueFactor, Duration maxWait) {
+        return new AdaptiveLimiter(name, Math.min(10, maxLimit), 1, maxLimit, maxLimit * queueFactor, maxWait);
+    }
+
+    @Override
+    public User createUser(String name, String email, int age) {
+        return call(writes, () -> delegate.createUser(name, email, age));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return call(reads, delegate::getAllUsers);
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        // Слот чтения занят всё время обхода: соединение держится до последней строки
+        call(reads, () -> {
+            delegate.forEachUser(action);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return call(reads, () -> delegate.getUserById(id));
+    }
+
+    @Override
+    public boolean updateUser(Long id, String name, String email, Integer age) {
+        return call(writes, () -> delegate.updateUser(id, name, email, age));
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        return call(writes, () -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return call(reads, () -> delegate.isEmailTaken(email));
+    }
+
+    @Override
+    public List<UserSearchResult> searchUsers(String query, int limit) {
+        return call(reads, () -> delegate.searchUsers(query, limit));
+    }
+
+    @Override
+    public boolean isSearchEnabled() {
+        return delegate.isSearchEnabled();
+    }
+
+    public AdaptiveLimiter getReads() {
+        return reads;
+    }
+
+    public AdaptiveLimiter getWrites() {
+        return writes;
+    }
+
+    /**
+     * Периодически пишет состояние отсеков в лог.
+     */
+    public void startReporting(Duration interval) {
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::logMetrics, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void logMetrics() {
+        logger.info("Admission control: {} {}", reads, writes);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        logMetrics();
+    }
+
+    private static <T> T call(AdaptiveLimiter limiter, Supplier<T> work) {
+        long start = limiter.acquire();
+        boolean dropped = false;
+        try {
+            return work.get();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Ошибка вызывающего: запрос дошёл до сервиса и отработал, задержка учитывается как обычно
+            throw e;
+        } catch (RuntimeException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.release(start, dropped);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package userservice.admission;
+
+/**
+ * Запрос отклонён контролем допуска: лимит одновременных вызовов исчерпан, а очередь
+ * ожидания заполнена или срок ожидания истёк. Повторять имеет смысл не раньше retryAfterMillis.
+ */
+public class OverloadedException extends RuntimeException {
+    private final String bulkhead;
+    private final long retryAfterMillis;
+
+    public OverloadedException(String bulkhead, String reason, long retryAfterMillis) {
+        super("Service overloaded (" + bulkhead + "): " + reason);
+        this.bulkhead = bulkhead;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,37 @@
+package userservice.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Email уже занят другим пользователем. Это ошибка входных данных, а не сбой хранилища,
+ * поэтому исключение наследует IllegalArgumentException.
+ */
+public class DuplicateEmailException extends IllegalArgumentException {
+    private final String email;
+
+    public DuplicateEmailException(String email) {
+        super("User with this email already exists");
+        this.email = email;
+    }
+
+    public DuplicateEmailException(String email, Throwable cause) {
+        super("User with this email already exists", cause);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Признак нарушения уникальности в цепочке причин: SQLSTATE 23505 PostgreSQL.
+     */
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && "23505".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,342 @@
+package userservice.dao;
+
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.LongObjectMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * UserDAO без БД: пользователи хранятся в памяти в полосах (lock striping) с примитивными
+ * ключами, уникальность email обеспечивает конкурентный индекс. Если задан файл снимка,
+ * состояние периодически сбрасывается в него через memory-mapped файл и восстанавливается при старте.
+ */
+public class InMemoryUserDAO implements UserDAO, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserDAO.class);
+
+    private static final int STRIPES = 16;
+    private static final int SNAPSHOT_MAGIC = 0x55534552; // "USER"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+    @SuppressWarnings("unchecked")
+    private final LongObjectMap<User>[] stripes = new LongObjectMap[STRIPES];
+    private final ConcurrentHashMap<String, Long> emailIndex = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+
+    private final Path snapshotFile;
+    private final ScheduledExecutorService snapshotScheduler;
+
+    public InMemoryUserDAO() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+            stripes[i] = new LongObjectMap<>();
+        }
+        this.snapshotFile = null;
+        this.snapshotScheduler = null;
+    }
+
+    public InMemoryUserDAO(Path snapshotFile, Duration snapshotInterval) {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+            stripes[i] = new LongObjectMap<>();
+        }
+        this.snapshotFile = snapshotFile;
+        if (Files.exists(snapshotFile)) {
+            restore();
+        }
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public User save(User user) {
+        if (user.getId() != null && user.getId() != 0) {
+            logger.error("Error saving user: {}", user);
+            throw new RuntimeException("Failed to save user",
+                    new IllegalStateException("User already has an ID: " + user.getId()));
+        }
+        long id = idSequence.incrementAndGet();
+        if (emailIndex.putIfAbsent(user.getEmail(), id) != null) {
+            logger.warn("Rejected user with duplicate email: {}", user.getEmail());
+            throw new DuplicateEmailException(user.getEmail());
+        }
+
+        user.initializeCreatedAt();
+        user.setId(id);
+        int stripe = stripe(id);
+        locks[stripe].writeLock().lock();
+        try {
+            stripes[stripe].put(id, copy(user));
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+        logger.info("User saved successfully: {}", user);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        int stripe = stripe(id);
+        locks[stripe].readLock().lock();
+        try {
+            User user = stripes[stripe].get(id);
+            return Optional.ofNullable(user == null ? null : copy(user));
+        } finally {
+            locks[stripe].readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].readLock().lock();
+            try {
+                stripes[i].forEachValue(user -> users.add(copy(user)));
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        users.sort(Comparator.comparing(User::getId));
+        return users;
+    }
+
+    @Override
+    public List<User> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i].readLock().lock();
+            try {
+                stripes[i].forEachValue(user -> {
+                    if (!user.getCreatedAt().isBefore(from) && user.getCreatedAt().isBefore(to)) {
+                        users.add(copy(user));
+                    }
+                });
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        users.sort(Comparator.comparing(User::getCreatedAt));
+        return users;
+    }
+
+    @Override
+    public boolean update(User user) {
+        Long id = user.getId();
+        if (id == null || id <= 0) {
+            return false;
+        }
+        int stripe = stripe(id);
+        locks[stripe].writeLock().lock();
+        try {
+            User current = stripes[stripe].get(id);
+            if (current == null) {
+                return false;
+            }
+            String oldEmail = current.getEmail();
+            String newEmail = user.getEmail();
+            if (!oldEmail.equals(newEmail)) {
+                if (emailIndex.putIfAbsent(newEmail, id) != null) {
+                    logger.error("Error updating user: email {} already exists", newEmail);
+                    return false;
+                }
+                emailIndex.remove(oldEmail, id);
+            }
+
+            User updated = copy(user);
+            updated.setCreatedAt(current.getCreatedAt());
+            stripes[stripe].put(id, updated);
+            logger.info("User updated successfully: {}", user);
+            return true;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        int stripe = stripe(id);
+        locks[stripe].writeLock().lock();
+        try {
+            User removed = stripes[stripe].remove(id);
+            if (removed == null) {
+                return false;
+            }
+            emailIndex.remove(removed.getEmail(), id);
+            logger.info("User deleted successfully: {}", id);
+            return true;
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return emailIndex.containsKey(email);
+    }
+
+    @Override
+    public void forEachEmail(Consumer<String> action) {
+        emailIndex.keySet().forEach(action);
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        findAll().forEach(action);
+    }
+
+    /**
+     * Записывает согласованный снимок всех пользователей во временный файл и атомарно
+     * подменяет им предыдущий снимок.
+     */
+    public void snapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("Snapshot file is not configured");
+        }
+        List<byte[]> records = new ArrayList<>();
+        long nextId;
+        // Писатели держат только одну полосу, поэтому захват всех полос по порядку не даёт взаимоблокировки
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+        try {
+            nextId = idSequence.get();
+            for (LongObjectMap<User> stripe : stripes) {
+                stripe.forEachValue(user -> records.add(encode(user)));
+            }
+        } finally {
+            for (ReentrantReadWriteLock lock : locks) {
+                lock.readLock().unlock();
+            }
+        }
+
+        long size = Integer.BYTES * 3L + Long.BYTES;
+        for (byte[] record : records) {
+            size += record.length;
+        }
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(nextId).putInt(records.size());
+            for (byte[] record : records) {
+                buffer.put(record);
+            }
+            buffer.force();
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Snapshot of {} users written to {}", records.size(), snapshotFile);
+    }
+
+    @Override
+    public void close() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            snapshotQuietly();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.error("Error writing users snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    private void restore() {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            long nextId = buffer.getLong();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                User user = decode(buffer);
+                stripes[stripe(user.getId())].put(user.getId(), user);
+                emailIndex.put(user.getEmail(), user.getId());
+            }
+            idSequence.set(nextId);
+            logger.info("Restored {} users from snapshot {}", count, snapshotFile);
+        } catch (Exception e) {
+            logger.error("Error restoring users snapshot from {}", snapshotFile, e);
+            throw new RuntimeException("Failed to restore users snapshot", e);
+        }
+    }
+
+    private static byte[] encode(User user) {
+        byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES * 4 + name.length + email.length);
+        buffer.putLong(user.getId());
+        buffer.putInt(user.getAge());
+        buffer.putLong(user.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(user.getCreatedAt().getNano());
+        buffer.putInt(name.length).put(name);
+        buffer.putInt(email.length).put(email);
+        return buffer.array();
+    }
+
+    private static User decode(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        int age = buffer.getInt();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        byte[] name = new byte[buffer.getInt()];
+        buffer.get(name);
+        byte[] email = new byte[buffer.getInt()];
+        buffer.get(email);
+
+        User user = new User(new String(name, StandardCharsets.UTF_8), new String(email, StandardCharsets.UTF_8), age);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        return user;
+    }
+
+    private static User copy(User source) {
+        User user = new User(source.getName(), source.getEmail(), source.getAge());
+        user.setId(source.getId());
+        user.setCreatedAt(source.getCreatedAt());
+        return user;
+    }
+
+    private static int stripe(long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,474 @@
+package userservice.dao;
+
+import model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * UserDAO, распределяющий пользователей по нескольким БД (шардам).
+ * <p>
+ * Новый пользователь попадает на шард по хешу email, а identity-колонка каждого шарда
+ * выдаёт ID с шагом, равным числу шардов: id = k * shardCount + shardIndex + 1.
+ * Поэтому шард восстанавливается по самому ID без обращения к справочнику.
+ * <p>
+ * После смены email пользователь остаётся на своём шарде, поэтому уникальность email между
+ * шардами держит таблица email_owners: строка (email, user_id) лежит на шарде shardForEmail(email),
+ * и её первичный ключ не даёт двум пользователям занять один email. При save строка владельца
+ * и пользователь пишутся одной транзакцией. При смене email новый email сначала резервируется
+ * на его шарде, затем обновляется пользователь, и только потом освобождается старый email.
+ * Сбой между шагами оставляет лишнюю резервацию (email считается занятым), но не дубликат.
+ */
+public class ShardedUserDAO implements UserDAO, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserDAO.class);
+
+    private final List<SessionFactory> shards;
+    private final ExecutorService executor;
+
+    public ShardedUserDAO(List<SessionFactory> shards) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.executor = Executors.newFixedThreadPool(this.shards.size());
+        alignIdentitySequences();
+        createEmailOwners();
+    }
+
+    @Override
+    public User save(User user) {
+        // Шард нового пользователя совпадает с шардом владельца его email
+        int shard = shardForEmail(user.getEmail(), shards.size());
+        Transaction transaction = null;
+        try (Session session = shards.get(shard).openSession()) {
+            transaction = session.beginTransaction();
+
+            if (user.getId() == null || user.getId() == 0) {
+                user.initializeCreatedAt();
+            }
+            session.persist(user);
+            session.createNativeMutationQuery("INSERT INTO email_owners (email, user_id) VALUES (:email, :userId)")
+                    .setParameter("email", user.getEmail())
+                    .setParameter("userId", user.getId())
+                    .executeUpdate();
+            transaction.commit();
+            logger.info("User saved successfully on shard {}: {}", shard, user);
+            return user;
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            if (DuplicateEmailException.isUniqueViolation(e)) {
+                logger.warn("Rejected user with duplicate email on shard {}: {}", shard, user.getEmail());
+                throw new DuplicateEmailException(user.getEmail(), e);
+            }
+            logger.error("Error saving user on shard {}: {}", shard, user, e);
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        int shard = shardForId(id, shards.size());
+        try (Session session = shards.get(shard).openSession()) {
+            return Optional.ofNullable(session.get(User.class, id));
+        } catch (Exception e) {
+            logger.error("Error finding user by ID on shard {}: {}", shard, id, e);
+            throw new RuntimeException("Failed to find user", e);
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        try {
+            List<User> users = new ArrayList<>();
+            fanOut(session -> session.createQuery("FROM User", User.class).list())
+                    .forEach(users::addAll);
+            users.sort(Comparator.comparing(User::getId));
+            return users;
+        } catch (Exception e) {
+            logger.error("Error fetching all users from shards", e);
+            throw new RuntimeException("Failed to fetch users", e);
+        }
+    }
+
+    /**
+     * Страница пользователей, упорядоченных по ID, по всем шардам: каждый шард отдаёт
+     * свои первые offset + limit записей, которые затем сливаются k-way merge.
+     */
+    public List<User> findPage(int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Invalid page bounds");
+        }
+        try {
+            List<List<User>> perShard = fanOut(session -> session
+                    .createQuery("FROM User u ORDER BY u.id", User.class)
+                    .setMaxResults(offset + limit)
+                    .list());
+            return mergeById(perShard, offset, limit);
+        } catch (Exception e) {
+            logger.error("Error fetching users page from shards: offset={}, limit={}", offset, limit, e);
+            throw new RuntimeException("Failed to fetch users", e);
+        }
+    }
+
+    @Override
+    public List<User> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to) {
+        try {
+            List<User> users = new ArrayList<>();
+            fanOut(session -> session
+                    .createQuery("FROM User u WHERE u.createdAt >= :from AND u.createdAt < :to", User.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .list())
+                    .forEach(users::addAll);
+            users.sort(Comparator.comparing(User::getCreatedAt));
+            return users;
+        } catch (Exception e) {
+            logger.error("Error fetching users created between {} and {} from shards", from, to, e);
+            throw new RuntimeException("Failed to fetch users", e);
+        }
+    }
+
+    @Override
+    public boolean update(User user) {
+        if (user.getId() == null || user.getId() <= 0) {
+            return false;
+        }
+        int shard = shardForId(user.getId(), shards.size());
+        String oldEmail;
+        try (Session session = shards.get(shard).openSession()) {
+            oldEmail = session.createQuery("SELECT u.email FROM User u WHERE u.id = :id", String.class)
+                    .setParameter("id", user.getId())
+                    .uniqueResult();
+        } catch (Exception e) {
+            logger.error("Error updating user on shard {}: {}", shard, user, e);
+            return false;
+        }
+        if (oldEmail == null) {
+            return false;
+        }
+        // Остальные шарды опрашиваются только при смене email
+        boolean emailChanged = !oldEmail.equals(user.getEmail());
+        if (emailChanged && !reserveEmail(user.getEmail(), user.getId())) {
+            logger.error("Error updating user: email {} already exists", user.getEmail());
+            return false;
+        }
+        Transaction transaction = null;
+        try (Session session = shards.get(shard).openSession()) {
+            transaction = session.beginTransaction();
+            session.merge(user);
+            transaction.commit();
+            logger.info("User updated successfully on shard {}: {}", shard, user);
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            logger.error("Error updating user on shard {}: {}", shard, user, e);
+            if (emailChanged) {
+                releaseEmail(user.getEmail(), user.getId());
+            }
+            return false;
+        }
+        if (emailChanged) {
+            releaseEmail(oldEmail, user.getId());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        int shard = shardForId(id, shards.size());
+        String email;
+        Transaction transaction = null;
+        try (Session session = shards.get(shard).openSession()) {
+            transaction = session.beginTransaction();
+            User user = session.get(User.class, id);
+            if (user == null) {
+                return false;
+            }
+            email = user.getEmail();
+            session.remove(user);
+            if (shardForEmail(email, shards.size()) == shard) {
+                deleteEmailOwner(session, email, id);
+            }
+            transaction.commit();
+            logger.info("User deleted successfully from shard {}: {}", shard, id);
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            logger.error("Error deleting user by ID on shard {}: {}", shard, id, e);
+            return false;
+        }
+        if (shardForEmail(email, shards.size()) != shard) {
+            releaseEmail(email, id);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        int shard = shardForEmail(email, shards.size());
+        try (Session session = shards.get(shard).openSession()) {
+            return !session.createNativeQuery("SELECT 1 FROM email_owners WHERE email = :email", Integer.class)
+                    .setParameter("email", email)
+                    .list()
+                    .isEmpty();
+        } catch (Exception e) {
+            logger.error("Error checking user email on shard {}: {}", shard, email, e);
+            throw new RuntimeException("Failed to check email", e);
+        }
+    }
+
+    @Override
+    public void forEachEmail(Consumer<String> action) {
+        for (int i = 0; i < shards.size(); i++) {
+            try (Session session = shards.get(i).openSession()) {
+                session.beginTransaction();
+                try (var emails = session.createQuery("SELECT u.email FROM User u", String.class)
+                        .setFetchSize(1000)
+                        .setReadOnly(true)
+                        .stream()) {
+                    emails.forEach(action);
+                }
+                session.getTransaction().commit();
+            } catch (Exception e) {
+                logger.error("Error streaming user emails from shard {}", i, e);
+                throw new RuntimeException("Failed to stream emails", e);
+            }
+        }
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        for (int i = 0; i < shards.size(); i++) {
+            try (Session session = shards.get(i).openSession()) {
+                session.beginTransaction();
+                try (var users = session.createQuery("FROM User", User.class)
+                        .setFetchSize(1000)
+                        .setReadOnly(true)
+                        .stream()) {
+                    users.forEach(user -> {
+                        action.accept(user);
+                        session.detach(user);
+                    });
+                }
+                session.getTransaction().commit();
+            } catch (Exception e) {
+                logger.error("Error streaming users from shard {}", i, e);
+                throw new RuntimeException("Failed to stream users", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        shards.forEach(SessionFactory::close);
+    }
+
+    static int shardForId(long id, int shardCount) {
+        return (int) ((id - 1) % shardCount);
+    }
+
+    static int shardForEmail(String email, int shardCount) {
+        CRC32 crc = new CRC32();
+        crc.update(email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    static List<User> mergeById(List<List<User>> perShard, int offset, int limit) {
+        // Элемент очереди: {номер шарда, позиция в его списке}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+                Comparator.comparingLong(h -> perShard.get(h[0]).get(h[1]).getId()));
+        for (int i = 0; i < perShard.size(); i++) {
+            if (!perShard.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<User> page = new ArrayList<>(limit);
+        int skipped = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            int[] head = heads.poll();
+            List<User> source = perShard.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(source.get(head[1]));
+            }
+            if (head[1] + 1 < source.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Закрепляет email за пользователем на шарде владельца. Повторная резервация тем же
+     * пользователем успешна, поэтому оставшаяся после сбоя резервация не мешает повтору.
+     */
+    private boolean reserveEmail(String email, Long userId) {
+        int shard = shardForEmail(email, shards.size());
+        Transaction transaction = null;
+        try (Session session = shards.get(shard).openSession()) {
+            transaction = session.beginTransaction();
+            int reserved = session.createNativeMutationQuery("""
+                            INSERT INTO email_owners (email, user_id) VALUES (:email, :userId)
+                            ON CONFLICT (email) DO UPDATE SET user_id = EXCLUDED.user_id
+                            WHERE email_owners.user_id = EXCLUDED.user_id""")
+                    .setParameter("email", email)
+                    .setParameter("userId", userId)
+                    .executeUpdate();
+            transaction.commit();
+            return reserved > 0;
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            logger.error("Error reserving email on shard {}: {}", shard, email, e);
+            return false;
+        }
+    }
+
+    private void releaseEmail(String email, Long userId) {
+        int shard = shardForEmail(email, shards.size());
+        Transaction transaction = null;
+        try (Session session = shards.get(shard).openSession()) {
+            transaction = session.beginTransaction();
+            deleteEmailOwner(session, email, userId);
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            // Email остаётся занятым, пока строку владельца не удалят вручную
+            logger.error("Error releasing email on shard {}: {}", shard, email, e);
+        }
+    }
+
+    private static void deleteEmailOwner(Session session, String email, Long userId) {
+        session.createNativeMutationQuery("DELETE FROM email_owners WHERE email = :email AND user_id = :userId")
+                .setParameter("email", email)
+                .setParameter("userId", userId)
+                .executeUpdate();
+    }
+
+    private <T> List<T> fanOut(Function<Session, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (SessionFactory shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try (Session session = shard.openSession()) {
+                    return query.apply(session);
+                }
+            }, executor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void alignIdentitySequences() {
+        int shardCount = shards.size();
+        for (int i = 0; i < shardCount; i++) {
+            Transaction transaction = null;
+            try (Session session = shards.get(i).openSession()) {
+                transaction = session.beginTransaction();
+                long maxId = session.createQuery("SELECT COALESCE(MAX(u.id), 0) FROM User u", Long.class)
+                        .getSingleResult();
+                long next = maxId + 1;
+                while (shardForId(next, shardCount) != i) {
+                    next++;
+                }
+                session.createNativeMutationQuery(
+                        "ALTER TABLE users ALTER COLUMN id SET INCREMENT BY " + shardCount
+                                + " RESTART WITH " + next)
+                        .executeUpdate();
+                transaction.commit();
+            } catch (Exception e) {
+                if (transaction != null) transaction.rollback();
+                logger.error("Error aligning ID sequence on shard {}", i, e);
+                throw new RuntimeException("Failed to initialize shard " + i, e);
+            }
+        }
+    }
+
+    /**
+     * Создаёт таблицу владельцев email на каждом шарде. Если хотя бы на одном шарде её не было,
+     * заполняет таблицы по существующим пользователям.
+     */
+    private void createEmailOwners() {
+        boolean created = false;
+        for (int i = 0; i < shards.size(); i++) {
+            Transaction transaction = null;
+            try (Session session = shards.get(i).openSession()) {
+                transaction = session.beginTransaction();
+                created |= session.createNativeQuery("SELECT to_regclass('email_owners') IS NULL", Boolean.class)
+                        .getSingleResult();
+                session.createNativeMutationQuery("""
+                        CREATE TABLE IF NOT EXISTS email_owners (
+                            email varchar(100) PRIMARY KEY,
+                            user_id bigint NOT NULL
+                        )""").executeUpdate();
+                transaction.commit();
+            } catch (Exception e) {
+                if (transaction != null) transaction.rollback();
+                logger.error("Error creating email owners table on shard {}", i, e);
+                throw new RuntimeException("Failed to initialize shard " + i, e);
+            }
+        }
+        if (created) {
+            backfillEmailOwners();
+        }
+    }
+
+    private void backfillEmailOwners() {
+        List<Session> owners = new ArrayList<>(shards.size());
+        try {
+            for (SessionFactory shard : shards) {
+                Session session = shard.openSession();
+                owners.add(session);
+                session.beginTransaction();
+            }
+            for (SessionFactory shard : shards) {
+                try (Session session = shard.openSession()) {
+                    session.beginTransaction();
+                    try (var rows = session.createQuery("SELECT u.email, u.id FROM User u", Object[].class)
+                            .setFetchSize(1000)
+                            .setReadOnly(true)
+                            .stream()) {
+                        rows.forEach(row -> owners.get(shardForEmail((String) row[0], shards.size()))
+                                .createNativeMutationQuery("""
+                                        INSERT INTO email_owners (email, user_id) VALUES (:email, :userId)
+                                        ON CONFLICT (email) DO NOTHING""")
+                                .setParameter("email", row[0])
+                                .setParameter("userId", row[1])
+                                .executeUpdate());
+                    }
+                    session.getTransaction().commit();
+                }
+            }
+            for (Session session : owners) {
+                session.getTransaction().commit();
+            }
+            logger.info("Email owners backfilled on {} shards", shards.size());
+        } catch (Exception e) {
+            logger.error("Error backfilling email owners", e);
+            throw new RuntimeException("Failed to initialize email owners", e);
+        } finally {
+            owners.forEach(Session::close);
+        }
+    }
+}
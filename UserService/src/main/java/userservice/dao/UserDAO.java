@@ -2,13 +2,19 @@ package userservice.dao;
 
 import model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserDAO {
     User save(User user);
     Optional<User> findById(Long id);
     List<User> findAll();
+    List<User> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to);
     boolean update(User user);
     boolean deleteById(Long id);
+    boolean existsByEmail(String email);
+    void forEachEmail(Consumer<String> action);
+    void forEachUser(Consumer<User> action);
 }
\ No newline at end of file
@@ -1,33 +1,62 @@
 package userservice.dao;
 
 import model.User;
+import model.UserChangeEvent;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import util.HibernateUtil;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class UserDAOImpl implements UserDAO {
     private static final Logger logger = LoggerFactory.getLogger(UserDAOImpl.class);
 
+    private final SessionFactory sessionFactory;
+    private final boolean writeOutbox;
+
+    /**
+     * @param writeOutbox записывать ли событие в user_outbox в транзакции каждого изменения;
+     *                    включать только вместе с запущенным OutboxRelay, иначе таблица растёт без предела
+     */
+    public UserDAOImpl(SessionFactory sessionFactory, boolean writeOutbox) {
+        this.sessionFactory = sessionFactory;
+        this.writeOutbox = writeOutbox;
+    }
+
+    public UserDAOImpl(boolean writeOutbox) {
+        this(HibernateUtil.getSessionFactory(), writeOutbox);
+    }
+
+    public UserDAOImpl() {
+        this(false);
+    }
+
     @Override
     public User save(User user) {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
 
             if(user.getId() == null || user.getId() == 0){
                 user.initializeCreatedAt();
             }
             session.persist(user);
+            recordChange(session, UserChangeEvent.Type.CREATED, user);
             transaction.commit();
             logger.info("User saved successfully: {}", user);
             return user;
         } catch (Exception e) {
             if (transaction != null) transaction.rollback();
+            if (DuplicateEmailException.isUniqueViolation(e)) {
+                logger.warn("Rejected user with duplicate email: {}", user.getEmail());
+                throw new DuplicateEmailException(user.getEmail(), e);
+            }
             logger.error("Error saving user: {}", user, e);
             throw new RuntimeException("Failed to save user", e);
         }
@@ -35,7 +64,7 @@ public class UserDAOImpl implements UserDAO {
 
     @Override
     public Optional<User> findById(Long id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             User user = session.get(User.class, id);
             return Optional.ofNullable(user);
         } catch (Exception e) {
@@ -46,7 +75,7 @@ public class UserDAOImpl implements UserDAO {
 
     @Override
     public List<User> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             return session.createQuery("FROM User", User.class).list();
         } catch (Exception e) {
             logger.error("Error fetching all users", e);
@@ -54,12 +83,28 @@ public class UserDAOImpl implements UserDAO {
         }
     }
 
+    @Override
+    public List<User> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to) {
+        try (Session session = sessionFactory.openSession()) {
+            // Условие по created_at позволяет PostgreSQL отсечь лишние секции users
+            return session.createQuery(
+                            "FROM User u WHERE u.createdAt >= :from AND u.createdAt < :to ORDER BY u.createdAt", User.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .list();
+        } catch (Exception e) {
+            logger.error("Error fetching users created between {} and {}", from, to, e);
+            throw new RuntimeException("Failed to fetch users", e);
+        }
+    }
+
     @Override
     public boolean update(User user) {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
             session.merge(user);
+            recordChange(session, UserChangeEvent.Type.UPDATED, user);
             transaction.commit();
             logger.info("User updated successfully: {}", user);
             return true;
@@ -73,11 +118,12 @@ public class UserDAOImpl implements UserDAO {
     @Override
     public boolean deleteById(Long id) {
         Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        try (Session session = sessionFactory.openSession()) {
             transaction = session.beginTransaction();
             User user = session.get(User.class, id);
             if (user != null) {
                 session.remove(user);
+                recordChange(session, UserChangeEvent.Type.DELETED, user);
                 transaction.commit();
                 logger.info("User deleted successfully: {}", id);
                 return true;
@@ -89,4 +135,63 @@ public class UserDAOImpl implements UserDAO {
             return false;
         }
     }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        try (Session session = sessionFactory.openSession()) {
+            return !session.createQuery("SELECT 1 FROM User u WHERE u.email = :email", Integer.class)
+                    .setParameter("email", email)
+                    .setMaxResults(1)
+                    .list()
+                    .isEmpty();
+        } catch (Exception e) {
+            logger.error("Error checking user email: {}", email, e);
+            throw new RuntimeException("Failed to check email", e);
+        }
+    }
+
+    @Override
+    public void forEachEmail(Consumer<String> action) {
+        try (Session session = sessionFactory.openSession()) {
+            // Курсор PostgreSQL с fetchSize работает только внутри транзакции
+            session.beginTransaction();
+            try (var emails = session.createQuery("SELECT u.email FROM User u", String.class)
+                    .setFetchSize(1000)
+                    .setReadOnly(true)
+                    .stream()) {
+                emails.forEach(action);
+            }
+            session.getTransaction().commit();
+        } catch (Exception e) {
+            logger.error("Error streaming user emails", e);
+            throw new RuntimeException("Failed to stream emails", e);
+        }
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try (var users = session.createQuery("FROM User", User.class)
+                    .setFetchSize(1000)
+                    .setReadOnly(true)
+                    .stream()) {
+                users.forEach(user -> {
+                    action.accept(user);
+                    // Не накапливаем уже обработанные сущности в контексте сессии
+                    session.detach(user);
+                });
+            }
+            session.getTransaction().commit();
+        } catch (Exception e) {
+            logger.error("Error streaming users", e);
+            throw new RuntimeException("Failed to stream users", e);
+        }
+    }
+
+    private void recordChange(Session session, UserChangeEvent.Type type, User user) {
+        if (writeOutbox) {
+            session.persist(new UserChangeEvent(type, user));
+        }
+    }
 }
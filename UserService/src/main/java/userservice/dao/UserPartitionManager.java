@@ -0,0 +1,340 @@
+package userservice.dao;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Переводит таблицу users на декларативное секционирование PostgreSQL по месяцам created_at
+ * и обслуживает секции: заранее создаёт будущие и переносит старые в схему user_archive.
+ * <p>
+ * Уникальный индекс секционированной таблицы обязан включать ключ секционирования, поэтому
+ * уникальность email обеспечивается отдельной таблицей user_emails, которую ведёт триггер.
+ * По умолчанию email архивированных пользователей освобождаются, как при удалении; с флагом
+ * reserveArchivedEmails они остаются занятыми, пока не вызван {@link #releaseArchivedEmails()}.
+ * <p>
+ * Архивация — операция хранения, а не удаление: событий DELETED в outbox она не пишет.
+ * Архивированные пользователи пропадают из findById и findAll (HTTP отвечает 404), но остаются
+ * в индексе поиска и фильтре email до перезапуска сервиса, а внешние потребители outbox о них
+ * не узнают.
+ */
+public class UserPartitionManager implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UserPartitionManager.class);
+
+    static final String ARCHIVE_SCHEMA = "user_archive";
+    private static final Pattern PARTITION_NAME = Pattern.compile("users_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'users_p'yyyy_MM");
+
+    private static final String EMAIL_GUARD_FUNCTION = """
+            CREATE OR REPLACE FUNCTION users_email_guard() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP IN ('INSERT', 'UPDATE') AND (TG_OP = 'INSERT' OR NEW.email <> OLD.email) THEN
+                    INSERT INTO user_emails (email, user_id) VALUES (NEW.email, NEW.id) ON CONFLICT (email) DO NOTHING;
+                    IF NOT FOUND AND NOT EXISTS (
+                            SELECT 1 FROM user_emails WHERE email = NEW.email AND user_id = NEW.id) THEN
+                        RAISE unique_violation USING MESSAGE = 'duplicate key value violates unique email: ' || NEW.email;
+                    END IF;
+                END IF;
+                IF TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND NEW.email <> OLD.email) THEN
+                    -- При переносе строки между секциями она уже есть в users, и запись сохраняется
+                    DELETE FROM user_emails e WHERE e.email = OLD.email AND e.user_id = OLD.id
+                        AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = OLD.id AND u.email = OLD.email);
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""";
+
+    private final SessionFactory sessionFactory;
+    private final int futureMonths;
+    private final int retentionMonths;
+    private final boolean reserveArchivedEmails;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-partitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserPartitionManager(SessionFactory sessionFactory, int futureMonths, int retentionMonths,
+                                boolean reserveArchivedEmails) {
+        if (futureMonths < 1 || retentionMonths < 1) {
+            throw new IllegalArgumentException("Future and retention months must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.futureMonths = futureMonths;
+        this.retentionMonths = retentionMonths;
+        this.reserveArchivedEmails = reserveArchivedEmails;
+    }
+
+    public UserPartitionManager(SessionFactory sessionFactory, int futureMonths, int retentionMonths) {
+        this(sessionFactory, futureMonths, retentionMonths, false);
+    }
+
+    /**
+     * Секционирует существующую таблицу users (если это ещё не сделано) и создаёт будущие секции.
+     */
+    public void install() {
+        execute(connection -> {
+            if (!isPartitioned(connection)) {
+                migrate(connection);
+            }
+            return null;
+        });
+        ensureFuturePartitions();
+    }
+
+    /**
+     * Периодически создаёт будущие секции; холодные секции архивируются, только если это явно включено.
+     */
+    public void startMaintenance(Duration interval, boolean archive) {
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                ensureFuturePartitions();
+                if (archive) {
+                    archiveColdPartitions();
+                }
+            } catch (Exception e) {
+                logger.error("Error maintaining users partitions", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void ensureFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        execute(connection -> {
+            List<String> existing = listPartitions(connection);
+            for (int i = 0; i <= futureMonths; i++) {
+                YearMonth month = current.plusMonths(i);
+                if (!existing.contains(partitionName(month))) {
+                    createPartition(connection, month);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Отсоединяет секции старше срока хранения и переносит их в схему user_archive.
+     * Возвращает имена перенесённых секций.
+     */
+    public List<String> archiveColdPartitions() {
+        return execute(connection -> {
+            List<String> cold = coldPartitions(listPartitions(connection), YearMonth.now(), retentionMonths);
+            if (cold.isEmpty()) {
+                return cold;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+                for (String partition : cold) {
+                    statement.execute("ALTER TABLE users DETACH PARTITION " + partition);
+                    statement.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                    // DETACH не запускает триггер, поэтому email освобождаются отдельным запросом
+                    int released = reserveArchivedEmails ? 0 : releaseEmails(statement, partition);
+                    logger.info("Archived users partition {}, released {} emails", partition, released);
+                }
+            }
+            return cold;
+        });
+    }
+
+    /**
+     * Освобождает email всех пользователей из схемы user_archive. Возвращает число освобождённых email.
+     */
+    public int releaseArchivedEmails() {
+        return execute(connection -> {
+            List<String> archived = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT tablename FROM pg_tables WHERE schemaname = '" + ARCHIVE_SCHEMA + "'")) {
+                while (rs.next()) {
+                    if (monthOf(rs.getString(1)) != null) {
+                        archived.add(rs.getString(1));
+                    }
+                }
+            }
+            int released = 0;
+            try (Statement statement = connection.createStatement()) {
+                for (String partition : archived) {
+                    released += releaseEmails(statement, partition);
+                }
+            }
+            logger.info("Released {} archived user emails", released);
+            return released;
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    static String partitionName(YearMonth month) {
+        return month.format(PARTITION_FORMAT);
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    static List<String> coldPartitions(List<String> partitions, YearMonth now, int retentionMonths) {
+        YearMonth oldestKept = now.minusMonths(retentionMonths);
+        List<String> cold = new ArrayList<>();
+        for (String partition : partitions) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                cold.add(partition);
+            }
+        }
+        cold.sort(null);
+        return cold;
+    }
+
+    private void migrate(Connection connection) throws SQLException {
+        YearMonth first;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT MIN(created_at), COALESCE(MAX(id), 0) FROM users")) {
+            rs.next();
+            first = rs.getTimestamp(1) == null ? YearMonth.now()
+                    : YearMonth.from(rs.getTimestamp(1).toLocalDateTime());
+            maxId = rs.getLong(2);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users RENAME TO users_legacy");
+            statement.execute("ALTER TABLE users_legacy RENAME CONSTRAINT users_pkey TO users_legacy_pkey");
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS users_partitioned_id_seq");
+            statement.execute("""
+                    CREATE TABLE users (
+                        id bigint NOT NULL DEFAULT nextval('users_partitioned_id_seq'),
+                        name varchar(50) NOT NULL,
+                        email varchar(100) NOT NULL,
+                        age integer NOT NULL,
+                        created_at timestamp(6) NOT NULL,
+                        PRIMARY KEY (id, created_at)
+                    ) PARTITION BY RANGE (created_at)""");
+            statement.execute("ALTER SEQUENCE users_partitioned_id_seq OWNED BY users.id");
+            statement.execute("CREATE INDEX users_email_idx ON users (email)");
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS user_emails (
+                        email varchar(100) PRIMARY KEY,
+                        user_id bigint NOT NULL
+                    )""");
+            statement.execute(EMAIL_GUARD_FUNCTION);
+            statement.execute("""
+                    CREATE TRIGGER users_email_guard AFTER INSERT OR UPDATE OR DELETE ON users
+                        FOR EACH ROW EXECUTE FUNCTION users_email_guard()""");
+            // Секция по умолчанию принимает строки, для месяца которых секция ещё не создана
+            statement.execute("CREATE TABLE users_default PARTITION OF users DEFAULT");
+        }
+
+        for (YearMonth month = first; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            createPartition(connection, month);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            int moved = statement.executeUpdate(
+                    "INSERT INTO users (id, name, email, age, created_at) "
+                            + "SELECT id, name, email, age, created_at FROM users_legacy");
+            statement.execute("SELECT setval('users_partitioned_id_seq', " + Math.max(maxId, 1) + ", "
+                    + (maxId > 0) + ")");
+            statement.execute("DROP TABLE users_legacy");
+            logger.info("Migrated {} users into partitioned table", moved);
+        }
+    }
+
+    private static int releaseEmails(Statement statement, String archivedPartition) throws SQLException {
+        return statement.executeUpdate("DELETE FROM user_emails e USING " + ARCHIVE_SCHEMA + "." + archivedPartition
+                + " a WHERE e.email = a.email AND e.user_id = a.id");
+    }
+
+    private void createPartition(Connection connection, YearMonth month) throws SQLException {
+        String name = partitionName(month);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        String range = "created_at >= '" + from + "' AND created_at < '" + to + "'";
+
+        try (Statement statement = connection.createStatement()) {
+            boolean defaultHasRows;
+            try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM users_default WHERE " + range + ")")) {
+                rs.next();
+                defaultHasRows = rs.getBoolean(1);
+            }
+            if (!defaultHasRows) {
+                statement.execute("CREATE TABLE " + name + " PARTITION OF users FOR VALUES FROM ('"
+                        + from + "') TO ('" + to + "')");
+            } else {
+                // Новая секция не может пересекаться со строками секции по умолчанию: переносим их
+                statement.execute("ALTER TABLE users DETACH PARTITION users_default");
+                statement.execute("CREATE TABLE " + name + " PARTITION OF users FOR VALUES FROM ('"
+                        + from + "') TO ('" + to + "')");
+                statement.execute("INSERT INTO users SELECT * FROM users_default WHERE " + range);
+                statement.execute("DELETE FROM users_default WHERE " + range);
+                statement.execute("ALTER TABLE users ATTACH PARTITION users_default DEFAULT");
+            }
+            logger.info("Created users partition {}", name);
+        }
+    }
+
+    private static boolean isPartitioned(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('users')")) {
+            return rs.next() && "p".equals(rs.getString(1));
+        }
+    }
+
+    private static List<String> listPartitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                             + "WHERE i.inhparent = to_regclass('users')")) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    private interface Work<T> {
+        T execute(Connection connection) throws SQLException;
+    }
+
+    private <T> T execute(Work<T> work) {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+            // DDL и PL/pgSQL выполняются через JDBC напрямую, чтобы Hibernate не разбирал ':' и '$$'
+            T result = session.doReturningWork(work::execute);
+            transaction.commit();
+            return result;
+        } catch (Exception e) {
+            if (transaction != null) transaction.rollback();
+            logger.error("Error managing users partitions", e);
+            throw new RuntimeException("Failed to manage users partitions", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package userservice.outbox;
+
+import model.UserChangeEvent;
+import util.Json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Пишет события в файл в формате JSON Lines — локальная замена очереди сообщений.
+ */
+public class FileUserChangeSink implements UserChangeSink {
+    private final Path file;
+
+    public FileUserChangeSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void deliver(List<UserChangeEvent> events) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (UserChangeEvent event : events) {
+            sb.append("{\"id\":").append(event.getId())
+                    .append(",\"userId\":").append(event.getUserId())
+                    .append(",\"type\":").append(Json.quote(event.getType().name()))
+                    .append(",\"email\":").append(Json.quote(event.getEmail()))
+                    .append(",\"occurredAt\":").append(Json.quote(String.valueOf(event.getOccurredAt())))
+                    .append("}\n");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Событие удаляется из outbox только после подтверждения, поэтому сбрасываем на диск
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package userservice.outbox;
+
+import model.UserChangeEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class ListenerUserChangeSink implements UserChangeSink {
+    private final List<Consumer<UserChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Consumer<UserChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<UserChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void deliver(List<UserChangeEvent> events) {
+        for (UserChangeEvent event : events) {
+            listeners.forEach(listener -> listener.accept(event));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package userservice.outbox;
+
+import model.UserChangeEvent;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.HibernateUtil;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переносит события из таблицы user_outbox в подключённые приёмники пачками в порядке ID.
+ * Строки удаляются только после успешной доставки во все приёмники (at-least-once):
+ * при сбое между доставкой и удалением пачка будет доставлена повторно.
+ */
+public class OutboxRelay implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final SessionFactory sessionFactory;
+    private final List<UserChangeSink> sinks;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+
+    public OutboxRelay(SessionFactory sessionFactory, List<UserChangeSink> sinks, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.sessionFactory = sessionFactory;
+        this.sinks = List.copyOf(sinks);
+        this.batchSize = batchSize;
+    }
+
+    public OutboxRelay(List<UserChangeSink> sinks) {
+        this(HibernateUtil.getSessionFactory(), sinks, 500);
+    }
+
+    public void start(Duration pollInterval) {
+        long intervalMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Доставляет все накопившиеся события и возвращает их количество.
+     */
+    public int drain() throws Exception {
+        int total = 0;
+        int delivered;
+        do {
+            delivered = relayBatch();
+            total += delivered;
+        } while (delivered == batchSize);
+        return total;
+    }
+
+    int relayBatch() throws Exception {
+        Transaction transaction = null;
+        try (Session session = sessionFactory.openSession()) {
+            transaction = session.beginTransaction();
+            // FOR UPDATE не даёт второму экземпляру relay доставить ту же пачку параллельно
+            List<UserChangeEvent> batch = session.createNativeQuery(
+                            "SELECT * FROM user_outbox ORDER BY id LIMIT :limit FOR UPDATE",
+                            UserChangeEvent.class)
+                    .setParameter("limit", batchSize)
+                    .list();
+            if (batch.isEmpty()) {
+                transaction.commit();
+                return 0;
+            }
+
+            for (UserChangeSink sink : sinks) {
+                sink.deliver(batch);
+            }
+
+            session.createMutationQuery("DELETE FROM UserChangeEvent e WHERE e.id IN :ids")
+                    .setParameter("ids", batch.stream().map(UserChangeEvent::getId).toList())
+                    .executeUpdate();
+            transaction.commit();
+
+            deliveredCount.addAndGet(batch.size());
+            LocalDateTime oldest = batch.get(0).getOccurredAt();
+            lastLagMillis.set(Duration.between(oldest, LocalDateTime.now()).toMillis());
+            logger.info("Relayed {} user change events", batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) transaction.rollback();
+            failedBatches.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public long getPendingCount() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT COUNT(e) FROM UserChangeEvent e", Long.class).getSingleResult();
+        }
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+
+    /**
+     * Задержка между записью самого старого события последней пачки и его доставкой.
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (Exception e) {
+            logger.error("Error relaying user change events", e);
+        }
+    }
+}
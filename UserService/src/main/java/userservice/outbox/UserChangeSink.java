@@ -0,0 +1,13 @@
+package userservice.outbox;
+
+import model.UserChangeEvent;
+
+import java.util.List;
+
+public interface UserChangeSink {
+    /**
+     * Получает пачку событий в порядке их записи в outbox. Исключение означает, что пачка
+     * не доставлена и будет отправлена повторно, поэтому обработка должна быть идемпотентной.
+     */
+    void deliver(List<UserChangeEvent> events) throws Exception;
+}
@@ -0,0 +1,329 @@
+package userservice.search;
+
+import model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import userservice.dao.UserDAO;
+import util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный индекс по имени и email для нечёткого поиска пользователей.
+ * <p>
+ * Документы нумеруются плотными порядковыми номерами, списки вхождений — растущие массивы int,
+ * упорядоченные по возрастанию. Изменение пользователя помечает старый документ удалённым и
+ * добавляет новый; когда удалённых становится больше живых, индекс перестраивается.
+ */
+public class UserSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final long EMAIL_FIELD = 1L << 48;
+    private static final double MIN_CONTAINMENT = 0.5;
+    private static final IntList EMPTY = new IntList();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private LongObjectMap<IntList> postings = new LongObjectMap<>();
+    private final LongObjectMap<Integer> ordinalById = new LongObjectMap<>();
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] emails = new String[1024];
+    private short[] nameGrams = new short[1024];
+    private short[] emailGrams = new short[1024];
+    private BitSet deleted = new BitSet();
+    private int docCount;
+    private int deletedCount;
+
+    /**
+     * Строит индекс, читая пользователей из БД потоком.
+     */
+    public static UserSearchIndex build(UserDAO userDAO) {
+        long start = System.nanoTime();
+        UserSearchIndex index = new UserSearchIndex();
+        userDAO.forEachUser(index::add);
+        logger.info("User search index built: {} users, ~{} KB, {} ms", index.size(),
+                index.getMemoryFootprintBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    public void add(User user) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(user.getId());
+            addInternal(user.getId(), user.getName(), user.getEmail());
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает до limit пользователей, чьё имя или email лучше всего совпадает с запросом.
+     * Оценка — доля триграмм запроса, найденных в поле, с поправкой на сходство длины.
+     * <p>
+     * Документ проходит порог, только если содержит не меньше required триграмм запроса, значит
+     * он обязательно встретится среди (q - required + 1) самых редких из них. Поэтому кандидаты
+     * собираются только по редким спискам, а частые проверяются бинарным поиском.
+     */
+    public List<UserSearchResult> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        long[] queryGrams = trigrams(query);
+        lock.readLock().lock();
+        try {
+            Scratch work = scratch.get();
+            work.ensureCapacity(docCount);
+            IntList candidates = new IntList();
+            collect(queryGrams, 0, nameGrams, work, candidates);
+            collect(queryGrams, EMAIL_FIELD, emailGrams, work, candidates);
+
+            PriorityQueue<UserSearchResult> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> Double.compare(a.score(), b.score()));
+            for (int i = 0; i < candidates.size; i++) {
+                int doc = candidates.values[i];
+                double score = work.scores[doc];
+                work.scores[doc] = 0;
+                if (top.size() < limit) {
+                    top.add(new UserSearchResult(ids[doc], names[doc], emails[doc], score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new UserSearchResult(ids[doc], names[doc], emails[doc], score));
+                }
+            }
+
+            List<UserSearchResult> results = new ArrayList<>(top);
+            results.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Приблизительный объём памяти индекса: массивы документов, списки вхождений и строки.
+     */
+    public long getMemoryFootprintBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) ids.length * (Long.BYTES + 2 * Short.BYTES + 2 * 4) + deleted.size() / 8;
+            long[] postingBytes = {0};
+            postings.forEachValue(list -> postingBytes[0] += 16 + 16 + (long) list.values.length * Integer.BYTES);
+            bytes += postingBytes[0];
+            for (int i = 0; i < docCount; i++) {
+                if (!deleted.get(i)) {
+                    bytes += 40L + names[i].length() + 40L + emails[i].length();
+                }
+            }
+            return bytes + (long) ordinalById.size() * (Long.BYTES + 16 + 4);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double score(int shared, int queryGrams, int docGrams) {
+        double containment = (double) shared / queryGrams;
+        if (containment < MIN_CONTAINMENT) {
+            return 0;
+        }
+        double jaccard = (double) shared / (queryGrams + docGrams - shared);
+        return 0.75 * containment + 0.25 * jaccard;
+    }
+
+    private void collect(long[] queryGrams, long field, short[] docGrams, Scratch work, IntList candidates) {
+        int[] counts = work.counts;
+        IntList[] lists = new IntList[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            IntList list = postings.get(queryGrams[i] | field);
+            lists[i] = list == null ? EMPTY : list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int required = Math.max(1, (int) Math.ceil(MIN_CONTAINMENT * queryGrams.length));
+        int probes = queryGrams.length - required + 1;
+        IntList touched = new IntList();
+        for (int i = 0; i < probes; i++) {
+            IntList list = lists[i];
+            for (int j = 0; j < list.size; j++) {
+                int doc = list.values[j];
+                if (counts[doc]++ == 0) {
+                    touched.add(doc);
+                }
+            }
+        }
+
+        for (int i = 0; i < touched.size; i++) {
+            int doc = touched.values[i];
+            int shared = counts[doc];
+            counts[doc] = 0;
+            if (deleted.get(doc) || shared + (queryGrams.length - probes) < required) {
+                continue;
+            }
+            for (int j = probes; j < lists.length; j++) {
+                if (Arrays.binarySearch(lists[j].values, 0, lists[j].size, doc) >= 0) {
+                    shared++;
+                }
+            }
+            float score = (float) score(shared, queryGrams.length, docGrams[doc]);
+            if (score > work.scores[doc]) {
+                if (work.scores[doc] == 0) {
+                    candidates.add(doc);
+                }
+                work.scores[doc] = score;
+            }
+        }
+    }
+
+    private void addInternal(long id, String name, String email) {
+        int doc = docCount++;
+        if (doc == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            nameGrams = Arrays.copyOf(nameGrams, capacity);
+            emailGrams = Arrays.copyOf(emailGrams, capacity);
+        }
+        ids[doc] = id;
+        names[doc] = name;
+        emails[doc] = email;
+
+        long[] grams = trigrams(name);
+        nameGrams[doc] = (short) Math.min(grams.length, Short.MAX_VALUE);
+        for (long gram : grams) {
+            posting(gram).add(doc);
+        }
+        grams = trigrams(email);
+        emailGrams[doc] = (short) Math.min(grams.length, Short.MAX_VALUE);
+        for (long gram : grams) {
+            posting(gram | EMAIL_FIELD).add(doc);
+        }
+        ordinalById.put(id, doc);
+    }
+
+    private void removeInternal(long id) {
+        Integer doc = ordinalById.remove(id);
+        if (doc != null) {
+            deleted.set(doc);
+            deletedCount++;
+        }
+    }
+
+    private IntList posting(long gram) {
+        IntList list = postings.get(gram);
+        if (list == null) {
+            list = new IntList();
+            postings.put(gram, list);
+        }
+        return list;
+    }
+
+    private void compactIfSparse() {
+        if (deletedCount > 1024 && deletedCount > docCount - deletedCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        long[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldEmails = emails;
+        BitSet oldDeleted = deleted;
+        int oldCount = docCount;
+
+        int live = oldCount - deletedCount;
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(live, 1)) << 1);
+        postings = new LongObjectMap<>();
+        ordinalById.clear();
+        ids = new long[capacity];
+        names = new String[capacity];
+        emails = new String[capacity];
+        nameGrams = new short[capacity];
+        emailGrams = new short[capacity];
+        deleted = new BitSet();
+        docCount = 0;
+        deletedCount = 0;
+        scratch.remove();
+
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                addInternal(oldIds[doc], oldNames[doc], oldEmails[doc]);
+            }
+        }
+        logger.info("User search index compacted: {} -> {} documents", oldCount, docCount);
+    }
+
+    static long[] trigrams(String value) {
+        String normalized = normalize(value);
+        String padded = "  " + normalized + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT).replace('ё', 'е').replaceAll("\\s+", " ");
+    }
+
+    // Рабочие массивы поиска переиспользуются потоком и обнуляются после каждого запроса
+    private static final class Scratch {
+        private int[] counts = new int[0];
+        private float[] scores = new float[0];
+
+        private void ensureCapacity(int docs) {
+            if (counts.length < docs) {
+                int capacity = Math.max(docs + (docs >> 1), 1024);
+                counts = new int[capacity];
+                scores = new float[capacity];
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1));
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package userservice.search;
+
+public record UserSearchResult(long id, String name, String email, double score) {
+}
@@ -0,0 +1,170 @@
+package userservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import userservice.dao.UserDAO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Считающий фильтр Блума по нормализованным email. Отрицательный ответ гарантирует, что
+ * такого email в БД нет, положительный требует проверки в БД. Счётчики позволяют удалять
+ * email при изменении и удалении пользователей.
+ * <p>
+ * Удаление не идемпотентно: remove для email, который не добавлялся, уменьшает чужие счётчики
+ * и может дать ложный отрицательный ответ. Поэтому email удаляет только сервис, который знает,
+ * что строка действительно была удалена, а не повторная доставка событий outbox.
+ */
+public class EmailFilter {
+    private static final Logger logger = LoggerFactory.getLogger(EmailFilter.class);
+
+    private static final int COUNTERS_PER_WORD = 8;
+    private static final int COUNTER_MAX = 0xFF;
+
+    private final AtomicLongArray counters;
+    private final int counterCount;
+    private final int hashCount;
+
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong truePositives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public EmailFilter(long expectedEmails, double falsePositiveRate) {
+        if (expectedEmails <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid filter parameters");
+        }
+        long bits = (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (bits > (long) Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter is too large: " + bits + " counters");
+        }
+        this.counterCount = (int) Math.max(COUNTERS_PER_WORD, bits);
+        this.hashCount = (int) Math.max(1, Math.round((double) counterCount / expectedEmails * Math.log(2)));
+        this.counters = new AtomicLongArray((counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+    }
+
+    /**
+     * Заполняет фильтр всеми email из БД, не загружая пользователей в память целиком.
+     */
+    public static EmailFilter bootstrap(UserDAO userDAO, long expectedEmails, double falsePositiveRate) {
+        EmailFilter filter = new EmailFilter(expectedEmails, falsePositiveRate);
+        AtomicLong loaded = new AtomicLong();
+        userDAO.forEachEmail(email -> {
+            filter.add(email);
+            loaded.incrementAndGet();
+        });
+        logger.info("Email filter bootstrapped with {} emails ({} counters, {} hashes)",
+                loaded.get(), filter.counterCount, filter.hashCount);
+        return filter;
+    }
+
+    public boolean mightContain(String email) {
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            if (counter(index(hashes, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            adjust(index(hashes, i), 1);
+        }
+    }
+
+    public void remove(String email) {
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            adjust(index(hashes, i), -1);
+        }
+    }
+
+    void recordNegative() {
+        negatives.incrementAndGet();
+    }
+
+    void recordPositive(boolean confirmed) {
+        (confirmed ? truePositives : falsePositives).incrementAndGet();
+    }
+
+    public long getNegatives() {
+        return negatives.get();
+    }
+
+    public long getTruePositives() {
+        return truePositives.get();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    /**
+     * Доля отсутствующих в БД email, для которых фильтр всё же ответил "возможно есть".
+     */
+    public double getObservedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long total = fp + negatives.get();
+        return total == 0 ? 0.0 : (double) fp / total;
+    }
+
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int counter(int index) {
+        long word = counters.get(index / COUNTERS_PER_WORD);
+        return (int) (word >>> shift(index)) & COUNTER_MAX;
+    }
+
+    private void adjust(int index, int delta) {
+        int wordIndex = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long word = counters.get(wordIndex);
+            int value = (int) (word >>> shift) & COUNTER_MAX;
+            // Насыщенный счётчик больше не меняется, иначе удаление могло бы дать ложный отрицательный ответ
+            if (value == COUNTER_MAX || (delta < 0 && value == 0)) {
+                return;
+            }
+            long updated = (word & ~((long) COUNTER_MAX << shift)) | ((long) (value + delta) << shift);
+            if (counters.compareAndSet(wordIndex, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(int index) {
+        return (index % COUNTERS_PER_WORD) * 8;
+    }
+
+    private int index(long[] hashes, int i) {
+        long combined = hashes[0] + i * hashes[1];
+        return (int) Long.remainderUnsigned(combined, counterCount);
+    }
+
+    private static long[] hashes(String email) {
+        byte[] bytes = normalize(email).getBytes(StandardCharsets.UTF_8);
+        long h1 = 0x9E3779B97F4A7C15L;
+        long h2 = 0xC2B2AE3D27D4EB4FL;
+        for (byte b : bytes) {
+            h1 = (h1 ^ b) * 0x100000001B3L;
+            h2 = Long.rotateLeft(h2 ^ b, 31) * 0x9E3779B97F4A7C15L;
+        }
+        return new long[]{mix(h1), mix(h2) | 1};
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,78 @@
+package userservice.service;
+
+import model.User;
+import userservice.search.UserSearchResult;
+import util.QueryStats;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Помечает SQL-запросы каждого вызова UserService именем операции для {@link QueryStats}.
+ */
+public class QueryStatsUserService implements UserService {
+    private final UserService delegate;
+
+    public QueryStatsUserService(UserService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User createUser(String name, String email, int age) {
+        return measure("createUser", () -> delegate.createUser(name, email, age));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return measure("getAllUsers", delegate::getAllUsers);
+    }
+
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        measure("forEachUser", () -> {
+            delegate.forEachUser(action);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return measure("getUserById", () -> delegate.getUserById(id));
+    }
+
+    @Override
+    public boolean updateUser(Long id, String name, String email, Integer age) {
+        return measure("updateUser", () -> delegate.updateUser(id, name, email, age));
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        return measure("deleteUser", () -> delegate.deleteUser(id));
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return measure("isEmailTaken", () -> delegate.isEmailTaken(email));
+    }
+
+    @Override
+    public List<UserSearchResult> searchUsers(String query, int limit) {
+        return measure("searchUsers", () -> delegate.searchUsers(query, limit));
+    }
+
+    @Override
+    public boolean isSearchEnabled() {
+        return delegate.isSearchEnabled();
+    }
+
+    private static <T> T measure(String operation, Supplier<T> call) {
+        QueryStats.Scope scope = QueryStats.operation(operation);
+        try {
+            return call.get();
+        } finally {
+            scope.close();
+        }
+    }
+}
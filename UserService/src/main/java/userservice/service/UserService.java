@@ -1,15 +1,20 @@
 package userservice.service;
 
 import model.User;
-
+import userservice.search.UserSearchResult;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
     User createUser(String name, String email, int age);
     List<User> getAllUsers();
+    void forEachUser(Consumer<User> action);
     Optional<User> getUserById(Long id);
     boolean updateUser(Long id, String name, String email, Integer age);
     boolean deleteUser(Long id);
+    boolean isEmailTaken(String email);
+    List<UserSearchResult> searchUsers(String query, int limit);
+    boolean isSearchEnabled();
 }
\ No newline at end of file
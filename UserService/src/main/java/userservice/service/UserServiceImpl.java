@@ -1,17 +1,33 @@
 package userservice.service;
 
 import model.User;
+import userservice.dao.DuplicateEmailException;
 import userservice.dao.UserDAO;
 import userservice.dao.UserDAOImpl;
+import userservice.search.UserSearchIndex;
+import userservice.search.UserSearchResult;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class UserServiceImpl implements UserService {
     private final UserDAO userDAO;
+    private final EmailFilter emailFilter;
+    private final UserSearchIndex searchIndex;
 
-    public UserServiceImpl(UserDAO userDAO) {
+    public UserServiceImpl(UserDAO userDAO, EmailFilter emailFilter, UserSearchIndex searchIndex) {
         this.userDAO = userDAO;
+        this.emailFilter = emailFilter;
+        this.searchIndex = searchIndex;
+    }
+
+    public UserServiceImpl(UserDAO userDAO, EmailFilter emailFilter) {
+        this(userDAO, emailFilter, null);
+    }
+
+    public UserServiceImpl(UserDAO userDAO) {
+        this(userDAO, null, null);
     }
 
     public UserServiceImpl() {
@@ -24,9 +40,21 @@ public class UserServiceImpl implements UserService {
         validateEmail(email);
         validateAge(age);
 
+        // Известный дубликат отклоняем до INSERT, не дожидаясь нарушения уникального индекса
+        if (emailFilter != null && isEmailTaken(email)) {
+            throw new DuplicateEmailException(email);
+        }
+
         User user = new User(name, email, age);
         user.initializeCreatedAt();
-        return userDAO.save(user);
+        User saved = userDAO.save(user);
+        if (emailFilter != null) {
+            emailFilter.add(email);
+        }
+        if (searchIndex != null) {
+            searchIndex.add(saved);
+        }
+        return saved;
     }
 
     @Override
@@ -34,6 +62,11 @@ public class UserServiceImpl implements UserService {
         return userDAO.findAll();
     }
 
+    @Override
+    public void forEachUser(Consumer<User> action) {
+        userDAO.forEachUser(action);
+    }
+
     @Override
     public Optional<User> getUserById(Long id) {
         if (id == null || id <= 0) {
@@ -56,8 +89,13 @@ public class UserServiceImpl implements UserService {
             user.setName(name);
         }
 
+        String oldEmail = user.getEmail();
         if (email != null && !email.isEmpty()) {
             validateEmail(email);
+            // Иначе конфликт проявится только как false из DAO, неотличимый от отсутствия пользователя
+            if (!email.equals(oldEmail) && isEmailTaken(email)) {
+                throw new DuplicateEmailException(email);
+            }
             user.setEmail(email);
         }
 
@@ -66,7 +104,15 @@ public class UserServiceImpl implements UserService {
             user.setAge(age);
         }
 
-        return userDAO.update(user);
+        boolean updated = userDAO.update(user);
+        if (updated && emailFilter != null && !oldEmail.equals(user.getEmail())) {
+            emailFilter.add(user.getEmail());
+            emailFilter.remove(oldEmail);
+        }
+        if (updated && searchIndex != null) {
+            searchIndex.add(user);
+        }
+        return updated;
     }
 
     @Override
@@ -74,7 +120,46 @@ public class UserServiceImpl implements UserService {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("Invalid user ID");
         }
-        return userDAO.deleteById(id);
+        // Email читается до удаления: фильтр должен забыть ровно тот email, что был у удалённой строки
+        Optional<User> existing = emailFilter != null ? userDAO.findById(id) : Optional.empty();
+        boolean deleted = userDAO.deleteById(id);
+        if (deleted && existing.isPresent()) {
+            emailFilter.remove(existing.get().getEmail());
+        }
+        if (deleted && searchIndex != null) {
+            searchIndex.remove(id);
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        if (emailFilter == null) {
+            return userDAO.existsByEmail(email);
+        }
+        if (!emailFilter.mightContain(email)) {
+            emailFilter.recordNegative();
+            return false;
+        }
+        boolean exists = userDAO.existsByEmail(email);
+        emailFilter.recordPositive(exists);
+        return exists;
+    }
+
+    @Override
+    public List<UserSearchResult> searchUsers(String query, int limit) {
+        if (searchIndex == null) {
+            throw new IllegalStateException("User search is not enabled");
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("Limit must be between 1 and 1000");
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public boolean isSearchEnabled() {
+        return searchIndex != null;
     }
 
     private void validateName(String name) {
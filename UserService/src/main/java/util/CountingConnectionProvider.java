@@ -0,0 +1,183 @@
+package util;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Startable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * ConnectionProvider, оборачивающий соединения настроенного пула в прокси, который замеряет
+ * каждый выполненный запрос и передаёт его в {@link QueryStats}.
+ * Подключается свойством hibernate.connection.provider_class; сам пул задаётся свойством
+ * {@value #DELEGATE_PROVIDER} (по умолчанию — встроенный пул Hibernate на DriverManager).
+ */
+public class CountingConnectionProvider implements ConnectionProvider, Configurable, ServiceRegistryAwareService,
+        Startable, Stoppable {
+    public static final String DELEGATE_PROVIDER = "userservice.connection.delegate_provider_class";
+    private static final String DEFAULT_DELEGATE =
+            "org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl";
+
+    private ConnectionProvider delegate;
+    private ServiceRegistryImplementor serviceRegistry;
+
+    public CountingConnectionProvider() {
+    }
+
+    CountingConnectionProvider(ConnectionProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, Object> configurationValues) {
+        Object className = configurationValues.getOrDefault(DELEGATE_PROVIDER, DEFAULT_DELEGATE);
+        try {
+            delegate = (ConnectionProvider) Class.forName(className.toString()).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Cannot create connection provider " + className, e);
+        }
+        // Жизненный цикл делегата ведём сами: реестр сервисов Hibernate знает только эту обёртку
+        if (delegate instanceof ServiceRegistryAwareService aware && serviceRegistry != null) {
+            aware.injectServices(serviceRegistry);
+        }
+        if (delegate instanceof Configurable configurable) {
+            configurable.configure(configurationValues);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (delegate instanceof Startable startable) {
+            startable.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (delegate instanceof Stoppable stoppable) {
+            stoppable.stop();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // В пул возвращаем исходное соединение, иначе при следующей выдаче прокси вложатся друг в друга
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler handler) {
+            connection = handler.target;
+        }
+        delegate.closeConnection(connection);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegate.supportsAggressiveRelease();
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this) || delegate.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return unwrapType.cast(this);
+        }
+        if (delegate.isUnwrappableAs(unwrapType)) {
+            return delegate.unwrap(unwrapType);
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingConnectionProvider.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private int binds;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return CountingConnectionProvider.invoke(target, method, args);
+                } finally {
+                    QueryStats.record(sql, binds, System.nanoTime() - start);
+                    binds = 0;
+                }
+            }
+            // setXxx(index, value, ...) — привязка параметра; setFetchSize(int) и подобные имеют один аргумент
+            if (name.startsWith("set") && args != null && args.length >= 2) {
+                binds++;
+            } else if (name.equals("clearParameters")) {
+                binds = 0;
+            }
+            return CountingConnectionProvider.invoke(target, method, args);
+        }
+    }
+}
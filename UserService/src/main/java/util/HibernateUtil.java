@@ -22,6 +22,14 @@ public class HibernateUtil {
         return sessionFactory;
     }
 
+    /**
+     * Размер пула соединений из hibernate.connection.pool_size; 20 — значение встроенного пула по умолчанию.
+     */
+    public static int getConnectionPoolSize() {
+        Object poolSize = getSessionFactory().getProperties().get("hibernate.connection.pool_size");
+        return poolSize == null ? 20 : Integer.parseInt(poolSize.toString());
+    }
+
     public static void shutdown() {
         getSessionFactory().close();
     }
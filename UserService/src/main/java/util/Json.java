@@ -0,0 +1,188 @@
+package util;
+
+import model.User;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Минимальная поддержка JSON без внешних зависимостей: экранирование строк, сериализация
+ * User и разбор плоских объектов со строками, числами, true/false и null.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static String user(User user) {
+        return "{\"id\":" + user.getId()
+                + ",\"name\":" + quote(user.getName())
+                + ",\"email\":" + quote(user.getEmail())
+                + ",\"age\":" + user.getAge()
+                + ",\"createdAt\":" + quote(user.getCreatedAt() == null ? null : user.getCreatedAt().toString())
+                + "}";
+    }
+
+    public static Map<String, Object> parseObject(String json) {
+        Parser parser = new Parser(json);
+        Map<String, Object> result = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return result;
+    }
+
+    private static final class Parser {
+        private final String json;
+        private int pos;
+
+        private Parser(String json) {
+            this.json = json;
+        }
+
+        private Map<String, Object> object() {
+            expect('{');
+            Map<String, Object> result = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                result.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return result;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (json.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (json.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (json.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            int start = pos;
+            while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Unexpected value");
+            }
+            String number = json.substring(start, pos);
+            try {
+                return number.matches("-?\\d+") ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> sb.append(escaped);
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > json.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> throw error("Invalid escape");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private char peek() {
+            if (pos >= json.length()) {
+                throw error("Unexpected end of input");
+            }
+            return json.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + message);
+        }
+    }
+}
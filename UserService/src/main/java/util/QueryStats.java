@@ -0,0 +1,129 @@
+package util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика SQL-запросов, собираемая CountingConnectionProvider: количество, время и
+ * число привязанных параметров в целом по операциям и отдельно для текущего потока.
+ * Операция задаётся через {@link #operation(String)}; запросы вне операции учитываются как "other".
+ */
+public final class QueryStats {
+    private static final Logger logger = LoggerFactory.getLogger(QueryStats.class);
+
+    private static final String DEFAULT_OPERATION = "other";
+
+    private static volatile long slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("userservice.slowQueryMillis", 500));
+
+    private static final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> currentOperation = ThreadLocal.withInitial(() -> DEFAULT_OPERATION);
+    private static final ThreadLocal<ThreadStats> threadStats = ThreadLocal.withInitial(ThreadStats::new);
+
+    private QueryStats() {
+    }
+
+    public static final class OperationStats {
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder binds = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder slowStatements = new LongAdder();
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getBinds() {
+            return binds.sum();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        public long getSlowStatements() {
+            return slowStatements.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "statements=" + getStatements() + ", binds=" + getBinds()
+                    + ", totalMillis=" + getTotalMillis() + ", slow=" + getSlowStatements();
+        }
+    }
+
+    public static final class ThreadStats {
+        private int statements;
+        private int binds;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getBinds() {
+            return binds;
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Помечает запросы текущего потока именем операции до закрытия возвращённого Scope.
+     * Вложенные операции учитываются в составе внешней.
+     */
+    public static Scope operation(String name) {
+        if (!DEFAULT_OPERATION.equals(currentOperation.get())) {
+            return () -> {
+            };
+        }
+        currentOperation.set(name);
+        return currentOperation::remove;
+    }
+
+    static void record(String sql, int binds, long nanos) {
+        String operation = currentOperation.get();
+        OperationStats stats = operations.computeIfAbsent(operation, k -> new OperationStats());
+        stats.statements.increment();
+        stats.binds.add(binds);
+        stats.totalNanos.add(nanos);
+
+        ThreadStats local = threadStats.get();
+        local.statements++;
+        local.binds += binds;
+
+        if (nanos >= slowQueryNanos) {
+            stats.slowStatements.increment();
+            logger.warn("Slow query in {} ({} ms, {} binds): {}",
+                    operation, TimeUnit.NANOSECONDS.toMillis(nanos), binds, sql);
+        }
+    }
+
+    public static Map<String, OperationStats> snapshot() {
+        return Map.copyOf(operations);
+    }
+
+    public static ThreadStats currentThread() {
+        return threadStats.get();
+    }
+
+    public static void resetCurrentThread() {
+        threadStats.remove();
+    }
+
+    public static void reset() {
+        operations.clear();
+        threadStats.remove();
+    }
+
+    public static void setSlowQueryThreshold(long millis) {
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,202 @@
+package http;
+
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import userservice.admission.OverloadedException;
+import userservice.dao.DuplicateEmailException;
+import userservice.search.UserSearchResult;
+import userservice.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HttpAppTest {
+
+    @Mock
+    private UserService userService;
+
+    private HttpApp httpApp;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        httpApp = new HttpApp(userService, 0, 4);
+        httpApp.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpApp.stop();
+    }
+
+    @Test
+    @DisplayName("should create user from JSON body")
+    void createUser() throws Exception {
+        when(userService.createUser("Test", "test@example.com", 30)).thenReturn(user(1L, "Test"));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Test\",\"email\":\"test@example.com\",\"age\":30}")));
+
+        assertEquals(201, response.statusCode());
+        assertEquals("/users/1", response.headers().firstValue("Location").orElseThrow());
+        assertTrue(response.body().contains("\"email\":\"test@example.com\""));
+    }
+
+    @Test
+    @DisplayName("should return 400 when service rejects input")
+    void createUser_Invalid() throws Exception {
+        when(userService.createUser("Test", "invalid-email", 30))
+                .thenThrow(new IllegalArgumentException("Invalid email format"));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Test\",\"email\":\"invalid-email\",\"age\":30}")));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("{\"error\":\"Invalid email format\"}", response.body());
+    }
+
+    @Test
+    @DisplayName("should return 503 with Retry-After when service sheds the request")
+    void getUser_Overloaded() throws Exception {
+        when(userService.getUserById(1L)).thenThrow(new OverloadedException("reads", "wait queue is full", 1500));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1")).GET());
+
+        assertEquals(503, response.statusCode());
+        assertEquals("2", response.headers().firstValue("Retry-After").orElseThrow());
+        assertTrue(response.body().contains("wait queue is full"));
+    }
+
+    @Test
+    @DisplayName("should stream all users as JSON array")
+    void listUsers() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(user(1L, "First"));
+            action.accept(user(2L, "Second"));
+            return null;
+        }).when(userService).forEachUser(any());
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users")).GET());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{\"id\":1,"));
+        assertTrue(response.body().contains("},{\"id\":2,"));
+        assertTrue(response.body().endsWith("}]"));
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("should return empty array and report failure before first user as error")
+    void listUsers_EmptyAndFailed() throws Exception {
+        doNothing().doThrow(new RuntimeException("Failed to stream users")).when(userService).forEachUser(any());
+
+        HttpResponse<String> empty = send(HttpRequest.newBuilder(uri("/users")).GET());
+        HttpResponse<String> failed = send(HttpRequest.newBuilder(uri("/users")).GET());
+
+        assertEquals(200, empty.statusCode());
+        assertEquals("[]", empty.body());
+        assertEquals(500, failed.statusCode());
+    }
+
+    @Test
+    @DisplayName("should return 404 for missing user and 204 for deleted user")
+    void getAndDelete() throws Exception {
+        when(userService.getUserById(5L)).thenReturn(Optional.empty());
+        when(userService.deleteUser(1L)).thenReturn(true);
+
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/users/5")).GET()).statusCode());
+        assertEquals(204, send(HttpRequest.newBuilder(uri("/users/1")).DELETE()).statusCode());
+    }
+
+    @Test
+    @DisplayName("should pass only provided fields to update")
+    void updateUser() throws Exception {
+        when(userService.updateUser(1L, null, null, 41)).thenReturn(true);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user(1L, "Test")));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":41}")));
+
+        assertEquals(200, response.statusCode());
+        verify(userService).updateUser(1L, null, null, 41);
+    }
+
+    @Test
+    @DisplayName("should return 409 for duplicate email on create and update")
+    void duplicateEmail() throws Exception {
+        when(userService.createUser("Test", "taken@example.com", 30))
+                .thenThrow(new DuplicateEmailException("taken@example.com"));
+        when(userService.updateUser(1L, null, "taken@example.com", null))
+                .thenThrow(new DuplicateEmailException("taken@example.com"));
+
+        HttpResponse<String> created = send(HttpRequest.newBuilder(uri("/users"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Test\",\"email\":\"taken@example.com\",\"age\":30}")));
+        HttpResponse<String> updated = send(HttpRequest.newBuilder(uri("/users/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"email\":\"taken@example.com\"}")));
+
+        assertEquals(409, created.statusCode());
+        assertEquals("{\"error\":\"User with this email already exists\"}", created.body());
+        assertEquals(409, updated.statusCode());
+    }
+
+    @Test
+    @DisplayName("should return 409 when update of existing user is rejected and 404 when user is missing")
+    void updateUser_Rejected() throws Exception {
+        when(userService.updateUser(anyLong(), any(), any(), any())).thenReturn(false);
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user(1L, "Test")));
+        when(userService.getUserById(2L)).thenReturn(Optional.empty());
+
+        assertEquals(409, send(HttpRequest.newBuilder(uri("/users/1"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":41}"))).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/users/2"))
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"age\":41}"))).statusCode());
+    }
+
+    @Test
+    @DisplayName("should search users by query and return 501 when search is disabled")
+    void searchUsers() throws Exception {
+        when(userService.isSearchEnabled()).thenReturn(true, false);
+        when(userService.searchUsers("ivan", 5))
+                .thenReturn(List.of(new UserSearchResult(1L, "Ivan", "ivan@example.com", 0.75)));
+
+        HttpResponse<String> found = send(HttpRequest.newBuilder(uri("/users?q=ivan&limit=5")).GET());
+        HttpResponse<String> disabled = send(HttpRequest.newBuilder(uri("/users?q=ivan")).GET());
+
+        assertEquals(200, found.statusCode());
+        assertEquals("[{\"id\":1,\"name\":\"Ivan\",\"email\":\"ivan@example.com\",\"score\":0.7500}]", found.body());
+        assertEquals(501, disabled.statusCode());
+        verify(userService, times(1)).searchUsers(anyString(), anyInt());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + httpApp.getPort() + path);
+    }
+
+    private static User user(Long id, String name) {
+        User user = new User(name, name.toLowerCase() + "@example.com", 30);
+        user.setId(id);
+        user.setCreatedAt(LocalDateTime.of(2023, 1, 1, 12, 0));
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import userservice.dao.InMemoryUserDAO;
+import userservice.service.UserService;
+import userservice.service.UserServiceImpl;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoadTestTest {
+
+    @Test
+    @DisplayName("should run closed model and report every operation in the mix")
+    void closedModel() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"workers=4", "seed=50", "dao=memory"});
+        config.setDuration(Duration.ofMillis(300));
+        config.setWarmup(Duration.ZERO);
+
+        LoadReport report = new LoadTest(new UserServiceImpl(new InMemoryUserDAO()), config).run();
+
+        for (Operation op : Operation.values()) {
+            assertTrue(report.getCount(op) > 0, "no samples for " + op);
+            assertEquals(0, report.getErrors(op), "errors for " + op);
+        }
+        assertTrue(report.toText().contains("p99.9 ms"));
+        assertTrue(report.toJson().contains("\"get\":{\"count\":"));
+        assertTrue(report.toJson().contains("\"p50\":"));
+        assertTrue(report.toJson().contains("\"p99.9\":"));
+        assertFalse(report.toJson().contains("\"p50.0\""));
+    }
+
+    @Test
+    @DisplayName("should issue requests at fixed rate in open model")
+    void openModel() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"workers=2", "rate=200", "seed=10", "mix=get:1"});
+        config.setDuration(Duration.ofMillis(500));
+        config.setWarmup(Duration.ZERO);
+
+        LoadReport report = new LoadTest(new UserServiceImpl(new InMemoryUserDAO()), config).run();
+
+        assertEquals(100, report.getCount(Operation.GET));
+        assertEquals(0, report.getCount(Operation.CREATE));
+    }
+
+    @Test
+    @DisplayName("should count failed calls as errors without recording their latency")
+    void failedCallsNotRecorded() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(new String[]{"workers=2", "rate=100", "seed=0", "mix=create:1"});
+        config.setDuration(Duration.ofMillis(200));
+        config.setWarmup(Duration.ZERO);
+        UserService userService = mock(UserService.class);
+        when(userService.createUser(anyString(), anyString(), anyInt())).thenThrow(new RuntimeException("Failed to save user"));
+
+        LoadReport report = new LoadTest(userService, config).run();
+
+        assertEquals(20, report.getErrors(Operation.CREATE));
+        assertEquals(0, report.getCount(Operation.CREATE));
+    }
+
+    @Test
+    @DisplayName("should parse operation mix regardless of default locale")
+    void parse_TurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            LoadTestConfig config = LoadTestConfig.parse(new String[]{"mix=list:1,get:2"});
+
+            assertEquals(1, config.getMix().get(Operation.LIST));
+            assertEquals(2, config.getMix().get(Operation.GET));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    @DisplayName("should reject unknown options")
+    void parse_UnknownOption() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parse(new String[]{"threads=4"}));
+    }
+}
@@ -2,17 +2,21 @@ package userservice;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.testcontainers.containers.PostgreSQLContainer;
-import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
 public abstract class BaseIntegrationTest {
-    @Container
+    // Один контейнер на весь прогон: HibernateUtil кэширует SessionFactory с адресом этой БД,
+    // а @Container перезапускал бы контейнер на новом порту для каждого тестового класса
     static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
             .withDatabaseName("test_db")
             .withUsername("test_user")
             .withPassword("test_pass");
 
+    static {
+        postgres.start();
+    }
+
     @BeforeAll
     static void beforeAll() {
     }
@@ -0,0 +1,107 @@
+package userservice.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    @Test
+    @DisplayName("should shed immediately when limit is reached and queue is full")
+    void acquire_QueueFull() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10, 0, Duration.ofSeconds(1));
+        limiter.acquire();
+        limiter.acquire();
+
+        OverloadedException e = assertThrows(OverloadedException.class, limiter::acquire);
+
+        assertEquals("test", e.getBulkhead());
+        assertTrue(e.getRetryAfterMillis() > 0);
+        assertEquals(2, limiter.getAdmitted());
+        assertEquals(1, limiter.getShedQueueFull());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("should admit queued request when a slot is released")
+    void acquire_QueuedThenAdmitted() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 10, 1, Duration.ofSeconds(5));
+        long start = limiter.acquire();
+
+        CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(limiter::acquire);
+        while (limiter.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release(start, false);
+
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(2, limiter.getAdmitted());
+        assertEquals(1, limiter.getQueued());
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("should shed queued request after its wait deadline")
+    void acquire_DeadlineExceeded() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 10, 5, Duration.ofMillis(50));
+        limiter.acquire();
+
+        long begin = System.nanoTime();
+        assertThrows(OverloadedException.class, limiter::acquire);
+
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1, limiter.getShedTimeout());
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("should lower the limit when latency grows and raise it when latency is stable")
+    void release_GradientAdjustsLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 1, 100, 0, Duration.ZERO);
+        long fast = TimeUnit.MILLISECONDS.toNanos(2);
+        long slow = TimeUnit.MILLISECONDS.toNanos(50);
+
+        for (int i = 0; i < 200; i++) {
+            saturateAndRelease(limiter, fast);
+        }
+        int stableLimit = limiter.getLimit();
+        assertTrue(stableLimit > 20, "limit: " + stableLimit);
+
+        for (int i = 0; i < 50; i++) {
+            saturateAndRelease(limiter, slow);
+        }
+        assertTrue(limiter.getLimit() < stableLimit / 2, "limit: " + limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("should back off multiplicatively on dropped calls but not below minimum")
+    void release_DroppedBacksOff() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 2, 10, 0, Duration.ZERO);
+
+        limiter.release(limiter.acquire(), true);
+        assertEquals(9, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.release(limiter.acquire(), true);
+        }
+        assertEquals(2, limiter.getLimit());
+        assertEquals(51, limiter.getDropped());
+    }
+
+    // Заполняет отсек до лимита и завершает все вызовы с заданной задержкой
+    private static void saturateAndRelease(AdaptiveLimiter limiter, long rttNanos) {
+        int count = limiter.getLimit();
+        for (int i = 0; i < count; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < count; i++) {
+            limiter.release(System.nanoTime() - rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package userservice.admission;
+
+import model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import userservice.service.UserService;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlledUserServiceTest {
+
+    @Test
+    @DisplayName("should keep reads available while writes bulkhead is saturated")
+    void updateUser_WritesSaturated() throws Exception {
+        UserService delegate = mock(UserService.class);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        when(delegate.deleteUser(1L)).thenAnswer(invocation -> {
+            writeStarted.countDown();
+            releaseWrite.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        when(delegate.getUserById(2L)).thenReturn(Optional.of(new User("Ivan", "ivan@example.com", 25)));
+        AdmissionControlledUserService service = new AdmissionControlledUserService(delegate,
+                new AdaptiveLimiter("reads", 1, 1, 1, 0, Duration.ZERO),
+                new AdaptiveLimiter("writes", 1, 1, 1, 0, Duration.ZERO));
+
+        CompletableFuture<Boolean> write = CompletableFuture.supplyAsync(() -> service.deleteUser(1L));
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+        assertThrows(OverloadedException.class, () -> service.updateUser(1L, "Petr", null, null));
+        assertTrue(service.getUserById(2L).isPresent());
+
+        releaseWrite.countDown();
+        assertTrue(write.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getWrites().getShed());
+        assertEquals(0, service.getReads().getShed());
+        verify(delegate, never()).updateUser(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should not treat validation errors as overload")
+    void getUserById_ValidationErrorIsNotDropped() {
+        UserService delegate = mock(UserService.class);
+        when(delegate.getUserById(-1L)).thenThrow(new IllegalArgumentException("Invalid user ID"));
+        when(delegate.getUserById(1L)).thenThrow(new RuntimeException("Failed to find user"));
+        AdmissionControlledUserService service = new AdmissionControlledUserService(delegate, 4, Duration.ZERO);
+
+        assertThrows(IllegalArgumentException.class, () -> service.getUserById(-1L));
+        assertEquals(0, service.getReads().getDropped());
+
+        assertThrows(RuntimeException.class, () -> service.getUserById(1L));
+        assertEquals(1, service.getReads().getDropped());
+        assertEquals(0, service.getReads().getInFlight());
+    }
+
+    @Test
+    @DisplayName("should not back off writes when update reports failure via return value")
+    void updateUser_FalseResultIsNotDropped() {
+        UserService delegate = mock(UserService.class);
+        when(delegate.updateUser(1L, "Petr", null, null)).thenReturn(false);
+        AdmissionControlledUserService service = new AdmissionControlledUserService(delegate, 4, Duration.ZERO);
+
+        int limit = service.getWrites().getLimit();
+
+        assertFalse(service.updateUser(1L, "Petr", null, null));
+
+        assertEquals(0, service.getWrites().getDropped());
+        assertEquals(limit, service.getWrites().getLimit());
+    }
+
+    @Test
+    @DisplayName("should split connection pool between bulkheads without oversubscribing it")
+    void constructor_SplitsConnectionPool() {
+        UserService delegate = mock(UserService.class);
+
+        AdmissionControlledUserService service = new AdmissionControlledUserService(delegate, 20, Duration.ZERO);
+        assertEquals(15, service.getReads().getMaxLimit());
+        assertEquals(5, service.getWrites().getMaxLimit());
+
+        AdmissionControlledUserService small = new AdmissionControlledUserService(delegate, 2, Duration.ZERO);
+        assertEquals(1, small.getReads().getMaxLimit());
+        assertEquals(1, small.getWrites().getMaxLimit());
+
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionControlledUserService(delegate, 1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,68 @@
+package userservice.dao;
+
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserDAOTest implements UserDAOContract {
+    private UserDAO userDAO;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        userDAO = new InMemoryUserDAO();
+    }
+
+    @Override
+    public UserDAO userDAO() {
+        return userDAO;
+    }
+
+    @Test
+    @DisplayName("should not update user to an email owned by another user")
+    void update_DuplicateEmail() {
+        userDAO.save(new User("First", "first@example.com", 30));
+        User second = userDAO.save(new User("Second", "second@example.com", 31));
+
+        second.setEmail("first@example.com");
+
+        assertFalse(userDAO.update(second));
+        assertEquals("second@example.com", userDAO.findById(second.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    @DisplayName("should restore users from snapshot after restart")
+    void snapshotAndRestore() throws Exception {
+        Path file = tempDir.resolve("users.snapshot");
+        User saved;
+        try (InMemoryUserDAO dao = new InMemoryUserDAO(file, Duration.ofHours(1))) {
+            saved = dao.save(new User("Иван Петров", "ivan@example.com", 42));
+            dao.save(new User("Gone", "gone@example.com", 20));
+            dao.deleteById(saved.getId() + 1);
+            dao.snapshot();
+        }
+
+        try (InMemoryUserDAO restored = new InMemoryUserDAO(file, Duration.ofHours(1))) {
+            List<User> users = restored.findAll();
+            assertEquals(1, users.size());
+            assertEquals("Иван Петров", users.get(0).getName());
+            assertEquals(saved.getCreatedAt(), users.get(0).getCreatedAt());
+
+            User next = restored.save(new User("Next", "next@example.com", 25));
+            assertTrue(next.getId() > saved.getId() + 1);
+            assertThrows(RuntimeException.class, () ->
+                    restored.save(new User("Dup", "ivan@example.com", 25))
+            );
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package userservice.dao;
+
+import model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+class ShardedUserDAOIntegrationTest implements UserDAOContract {
+    @Container
+    static final PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>("postgres:15-alpine");
+    @Container
+    static final PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static List<SessionFactory> factories;
+    private static ShardedUserDAO userDAO;
+
+    @BeforeAll
+    static void setUpShards() {
+        factories = List.of(buildSessionFactory(shard0), buildSessionFactory(shard1));
+        userDAO = new ShardedUserDAO(factories);
+    }
+
+    @AfterAll
+    static void tearDownShards() {
+        userDAO.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Без RESTART IDENTITY: шаг и стартовое значение последовательностей задал ShardedUserDAO
+        for (SessionFactory factory : factories) {
+            try (var session = factory.openSession()) {
+                session.beginTransaction();
+                session.createNativeMutationQuery("TRUNCATE TABLE users, email_owners").executeUpdate();
+                session.getTransaction().commit();
+            }
+        }
+    }
+
+    @Override
+    public UserDAO userDAO() {
+        return userDAO;
+    }
+
+    @Test
+    @DisplayName("should store user on the shard chosen by email and encode it in the ID")
+    void save_RoutesByEmail() {
+        for (int i = 0; i < 10; i++) {
+            User user = userDAO.save(new User("User", "route" + i + "@example.com", 30));
+            int shard = ShardedUserDAO.shardForEmail(user.getEmail(), 2);
+
+            assertEquals(shard, ShardedUserDAO.shardForId(user.getId(), 2));
+            assertEquals(1, countUsers(factories.get(shard), user.getEmail()));
+            assertEquals(0, countUsers(factories.get(1 - shard), user.getEmail()));
+        }
+    }
+
+    @Test
+    @DisplayName("should reject new user whose email moved to another shard by update")
+    void save_EmailTakenOnOtherShard() {
+        String first = emailOnShard(0, "first");
+        String moved = emailOnShard(1, "moved");
+        User user = userDAO.save(new User("First", first, 30));
+        user.setEmail(moved);
+        assertTrue(userDAO.update(user));
+
+        assertThrows(RuntimeException.class, () -> userDAO.save(new User("Second", moved, 31)));
+        assertEquals(0, countUsers(factories.get(1), moved));
+        assertTrue(userDAO.existsByEmail(moved));
+    }
+
+    @Test
+    @DisplayName("should reject update to email owned by user on another shard")
+    void update_EmailTakenOnOtherShard() {
+        User first = userDAO.save(new User("First", emailOnShard(0, "first"), 30));
+        User second = userDAO.save(new User("Second", emailOnShard(1, "second"), 31));
+
+        second.setEmail(first.getEmail());
+
+        assertFalse(userDAO.update(second));
+    }
+
+    @Test
+    @DisplayName("should move email ownership on update and release it on delete")
+    void emailOwnership_UpdateAndDelete() {
+        String first = emailOnShard(0, "first");
+        String moved = emailOnShard(1, "moved");
+        User user = userDAO.save(new User("First", first, 30));
+        assertEquals(1, countOwners(factories.get(0), first));
+
+        user.setEmail(moved);
+        assertTrue(userDAO.update(user));
+        assertEquals(0, countOwners(factories.get(0), first));
+        assertEquals(1, countOwners(factories.get(1), moved));
+        assertFalse(userDAO.existsByEmail(first));
+
+        user.setName("Renamed");
+        assertTrue(userDAO.update(user));
+        assertEquals(1, countOwners(factories.get(1), moved));
+
+        assertTrue(userDAO.deleteById(user.getId()));
+        assertEquals(0, countOwners(factories.get(1), moved));
+        assertDoesNotThrow(() -> userDAO.save(new User("Second", moved, 31)));
+    }
+
+    @Test
+    @DisplayName("should fill email owners from existing users when the table is missing")
+    void createEmailOwners_Backfill() {
+        String first = emailOnShard(0, "first");
+        String moved = emailOnShard(1, "moved");
+        User user = userDAO.save(new User("First", first, 30));
+        user.setEmail(moved);
+        assertTrue(userDAO.update(user));
+        for (SessionFactory factory : factories) {
+            try (var session = factory.openSession()) {
+                session.beginTransaction();
+                session.createNativeMutationQuery("DROP TABLE email_owners").executeUpdate();
+                session.getTransaction().commit();
+            }
+        }
+
+        ShardedUserDAO reopened = new ShardedUserDAO(factories);
+
+        assertEquals(1, countOwners(factories.get(1), moved));
+        assertThrows(DuplicateEmailException.class, () -> reopened.save(new User("Second", moved, 31)));
+    }
+
+    @Test
+    @DisplayName("should return pages ordered by ID across shards")
+    void findPage() {
+        for (int i = 0; i < 9; i++) {
+            userDAO.save(new User("User", "page" + i + "@example.com", 30));
+        }
+        List<Long> allIds = userDAO.findAll().stream().map(User::getId).toList();
+
+        List<Long> page = userDAO.findPage(2, 4).stream().map(User::getId).toList();
+
+        assertEquals(allIds.subList(2, 6), page);
+        assertEquals(allIds.subList(8, 9), userDAO.findPage(8, 4).stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("should continue interleaved IDs after re-aligning sequences over existing rows")
+    void alignIdentitySequences_ExistingRows() {
+        User before0 = userDAO.save(new User("Before", emailOnShard(0, "before0"), 30));
+        User before1 = userDAO.save(new User("Before", emailOnShard(1, "before1"), 30));
+
+        // Второй экземпляр поверх тех же БД повторно выравнивает последовательности в конструкторе
+        ShardedUserDAO reopened = new ShardedUserDAO(factories);
+        User after0 = reopened.save(new User("After", emailOnShard(0, "after0"), 30));
+        User after1 = reopened.save(new User("After", emailOnShard(1, "after1"), 30));
+
+        assertEquals(0, ShardedUserDAO.shardForId(after0.getId(), 2));
+        assertEquals(1, ShardedUserDAO.shardForId(after1.getId(), 2));
+        assertTrue(after0.getId() > before0.getId());
+        assertTrue(after1.getId() > before1.getId());
+        assertEquals(4, userDAO.findAll().size());
+    }
+
+    private static String emailOnShard(int shard, String prefix) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@example.com";
+            if (ShardedUserDAO.shardForEmail(email, 2) == shard) {
+                return email;
+            }
+        }
+    }
+
+    private static long countUsers(SessionFactory factory, String email) {
+        try (var session = factory.openSession()) {
+            return session.createQuery("SELECT COUNT(u) FROM User u WHERE u.email = :email", Long.class)
+                    .setParameter("email", email)
+                    .getSingleResult();
+        }
+    }
+
+    private static long countOwners(SessionFactory factory, String email) {
+        try (var session = factory.openSession()) {
+            return session.createNativeQuery("SELECT COUNT(*) FROM email_owners WHERE email = :email", Long.class)
+                    .setParameter("email", email)
+                    .getSingleResult();
+        }
+    }
+
+    private static SessionFactory buildSessionFactory(PostgreSQLContainer<?> container) {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.url", container.getJdbcUrl());
+        configuration.setProperty("hibernate.connection.username", container.getUsername());
+        configuration.setProperty("hibernate.connection.password", container.getPassword());
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.addAnnotatedClass(User.class);
+        return configuration.buildSessionFactory();
+    }
+}
@@ -0,0 +1,49 @@
+package userservice.dao;
+
+import model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserDAOTest {
+
+    @Test
+    @DisplayName("should recover shard from interleaved ID")
+    void shardForId() {
+        assertEquals(0, ShardedUserDAO.shardForId(1, 3));
+        assertEquals(1, ShardedUserDAO.shardForId(2, 3));
+        assertEquals(2, ShardedUserDAO.shardForId(3, 3));
+        assertEquals(0, ShardedUserDAO.shardForId(4, 3));
+    }
+
+    @Test
+    @DisplayName("should route email to the same shard regardless of case")
+    void shardForEmail() {
+        int shard = ShardedUserDAO.shardForEmail("User@Example.com", 4);
+
+        assertEquals(shard, ShardedUserDAO.shardForEmail("user@example.com", 4));
+        assertTrue(shard >= 0 && shard < 4);
+    }
+
+    @Test
+    @DisplayName("should merge shard results into a single page ordered by ID")
+    void mergeById() {
+        List<List<User>> perShard = List.of(
+                List.of(user(1L), user(4L), user(7L)),
+                List.of(user(2L), user(5L)),
+                List.of(user(3L), user(6L), user(9L)));
+
+        List<User> page = ShardedUserDAO.mergeById(perShard, 2, 4);
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), page.stream().map(User::getId).toList());
+    }
+
+    private static User user(Long id) {
+        User user = new User("User", "user" + id + "@example.com", 30);
+        user.setId(id);
+        return user;
+    }
+}
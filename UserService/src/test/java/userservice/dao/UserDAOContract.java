@@ -0,0 +1,139 @@
+package userservice.dao;
+
+import model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Общий набор тестов, которому должна соответствовать любая реализация UserDAO.
+ */
+interface UserDAOContract {
+    LocalDateTime FIXED_TIME = LocalDateTime.of(2023, 1, 1, 12, 0);
+
+    UserDAO userDAO();
+
+    @Test
+    @DisplayName("should save and find user by ID")
+    default void saveAndFindById() {
+        User user = new User("Test User", "test@example.com", 30);
+        user.setCreatedAt(FIXED_TIME);
+
+        User savedUser = userDAO().save(user);
+        Optional<User> foundUser = userDAO().findById(savedUser.getId());
+
+        assertTrue(foundUser.isPresent());
+        assertEquals(FIXED_TIME, foundUser.get().getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("should find all users")
+    default void findAll() {
+        userDAO().save(new User("User1", "user1@example.com", 25));
+        userDAO().save(new User("User2", "user2@example.com", 35));
+
+        List<User> users = userDAO().findAll();
+
+        assertEquals(2, users.size());
+        assertTrue(users.stream().anyMatch(u -> "User1".equals(u.getName())));
+        assertTrue(users.stream().anyMatch(u -> "User2".equals(u.getName())));
+    }
+
+    @Test
+    @DisplayName("should update user")
+    default void updateUser() {
+        User user = userDAO().save(new User("Old Name", "old@example.com", 30));
+
+        user.setName("New Name");
+        user.setEmail("new@example.com");
+        user.setAge(40);
+        boolean updated = userDAO().update(user);
+
+        assertTrue(updated);
+        Optional<User> updatedUser = userDAO().findById(user.getId());
+        assertTrue(updatedUser.isPresent());
+        assertEquals("New Name", updatedUser.get().getName());
+        assertEquals("new@example.com", updatedUser.get().getEmail());
+        assertEquals(40, updatedUser.get().getAge());
+    }
+
+    @Test
+    @DisplayName("should delete user by ID")
+    default void deleteById() {
+        User user = userDAO().save(new User("ToDelete", "delete@example.com", 28));
+
+        boolean deleted = userDAO().deleteById(user.getId());
+
+        assertTrue(deleted);
+        assertFalse(userDAO().findById(user.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("should return empty optional when user not found")
+    default void findById_NotFound() {
+        Optional<User> result = userDAO().findById(999L);
+
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    @DisplayName("should reject user with duplicate email")
+    default void save_DuplicateEmail() {
+        userDAO().save(new User("First", "same@example.com", 30));
+
+        assertThrows(DuplicateEmailException.class, () ->
+                userDAO().save(new User("Second", "same@example.com", 31))
+        );
+        assertEquals(1, userDAO().findAll().size());
+    }
+
+    @Test
+    @DisplayName("should check and stream existing emails")
+    default void existsByEmailAndForEachEmail() {
+        userDAO().save(new User("User1", "user1@example.com", 25));
+        userDAO().save(new User("User2", "user2@example.com", 35));
+
+        List<String> emails = new ArrayList<>();
+        userDAO().forEachEmail(emails::add);
+
+        assertTrue(userDAO().existsByEmail("user1@example.com"));
+        assertFalse(userDAO().existsByEmail("missing@example.com"));
+        assertEquals(2, emails.size());
+        assertTrue(emails.containsAll(List.of("user1@example.com", "user2@example.com")));
+    }
+
+    @Test
+    @DisplayName("should find users created within range")
+    default void findByCreatedAtBetween() {
+        User old = new User("Old", "old@example.com", 25);
+        old.setCreatedAt(FIXED_TIME.minusMonths(2));
+        User recent = new User("Recent", "recent@example.com", 35);
+        recent.setCreatedAt(FIXED_TIME);
+        userDAO().save(old);
+        userDAO().save(recent);
+
+        List<User> users = userDAO().findByCreatedAtBetween(FIXED_TIME.minusDays(1), FIXED_TIME.plusDays(1));
+
+        assertEquals(1, users.size());
+        assertEquals("Recent", users.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("should stream all users")
+    default void forEachUser() {
+        userDAO().save(new User("User1", "user1@example.com", 25));
+        userDAO().save(new User("User2", "user2@example.com", 35));
+
+        List<User> users = new ArrayList<>();
+        userDAO().forEachUser(users::add);
+
+        assertEquals(2, users.size());
+        assertTrue(users.stream().anyMatch(u -> "User2".equals(u.getName())));
+    }
+}
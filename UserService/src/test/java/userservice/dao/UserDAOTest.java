@@ -9,20 +9,15 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import userservice.BaseIntegrationTest;
 import util.HibernateUtil;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-
-import static org.junit.jupiter.api.Assertions.*;
+import static util.QueryAssertions.assertQueryCount;
 
 @Testcontainers
-class UserDAOTest extends BaseIntegrationTest {
+class UserDAOTest extends BaseIntegrationTest implements UserDAOContract {
     private UserDAO userDAO;
-    private static final LocalDateTime FIXED_TIME = LocalDateTime.of(2023, 1, 1, 12, 0);
 
     @BeforeEach
     void setUp() {
-        userDAO = new UserDAOImpl();
+        userDAO = new UserDAOImpl(true);
     }
 
     @AfterEach
@@ -34,66 +29,25 @@ class UserDAOTest extends BaseIntegrationTest {
         }
     }
 
-    @Test
-    @DisplayName("should save and find user by ID")
-    void saveAndFindById() {
-        User user = new User("Test User", "test@example.com", 30);
-        user.setCreatedAt(FIXED_TIME);
-
-        User savedUser = userDAO.save(user);
-        Optional<User> foundUser = userDAO.findById(savedUser.getId());
-
-        assertTrue(foundUser.isPresent());
-        assertEquals(FIXED_TIME, foundUser.get().getCreatedAt());
-    }
-
-    @Test
-    @DisplayName("should find all users")
-    void findAll() {
-        userDAO.save(new User("User1", "user1@example.com", 25));
-        userDAO.save(new User("User2", "user2@example.com", 35));
-
-        List<User> users = userDAO.findAll();
-
-        assertEquals(2, users.size());
-        assertTrue(users.stream().anyMatch(u -> "User1".equals(u.getName())));
-        assertTrue(users.stream().anyMatch(u -> "User2".equals(u.getName())));
-    }
-
-    @Test
-    @DisplayName("should update user")
-    void updateUser() {
-        User user = userDAO.save(new User("Old Name", "old@example.com", 30));
-
-        user.setName("New Name");
-        user.setEmail("new@example.com");
-        user.setAge(40);
-        boolean updated = userDAO.update(user);
-
-        assertTrue(updated);
-        Optional<User> updatedUser = userDAO.findById(user.getId());
-        assertTrue(updatedUser.isPresent());
-        assertEquals("New Name", updatedUser.get().getName());
-        assertEquals("new@example.com", updatedUser.get().getEmail());
-        assertEquals(40, updatedUser.get().getAge());
-    }
-
-    @Test
-    @DisplayName("should delete user by ID")
-    void deleteById() {
-        User user = userDAO.save(new User("ToDelete", "delete@example.com", 28));
-
-        boolean deleted = userDAO.deleteById(user.getId());
-
-        assertTrue(deleted);
-        assertFalse(userDAO.findById(user.getId()).isPresent());
+    @Override
+    public UserDAO userDAO() {
+        return userDAO;
     }
 
     @Test
-    @DisplayName("should return empty optional when user not found")
-    void findById_NotFound() {
-        Optional<User> result = userDAO.findById(999L);
-
-        assertFalse(result.isPresent());
+    @DisplayName("should stay within SQL statement budget per DAO call")
+    void statementBudgets() {
+        User user = new User("Budget", "budget@example.com", 30);
+
+        // INSERT пользователя + INSERT в outbox
+        assertQueryCount(2, () -> userDAO.save(user));
+        assertQueryCount(1, () -> userDAO.findById(user.getId()));
+        assertQueryCount(1, () -> userDAO.findAll());
+
+        user.setName("Budget Updated");
+        // SELECT при merge + UPDATE + INSERT в outbox
+        assertQueryCount(3, () -> userDAO.update(user));
+        // SELECT + DELETE + INSERT в outbox
+        assertQueryCount(3, () -> userDAO.deleteById(user.getId()));
     }
-}
\ No newline at end of file
+}
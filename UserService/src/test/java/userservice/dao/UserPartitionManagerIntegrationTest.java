@@ -0,0 +1,206 @@
+package userservice.dao;
+
+import model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import userservice.BaseIntegrationTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+class UserPartitionManagerIntegrationTest extends BaseIntegrationTest {
+    // Отдельная БД: миграция меняет схему users, которую используют остальные интеграционные тесты
+    private static final String DATABASE = "partition_test";
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (Connection connection = DriverManager.getConnection(getJdbcUrl(), getUsername(), getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DATABASE + " WITH (FORCE)");
+            statement.execute("CREATE DATABASE " + DATABASE);
+        }
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.url", getJdbcUrl().replace("/test_db", "/" + DATABASE));
+        configuration.setProperty("hibernate.connection.username", getUsername());
+        configuration.setProperty("hibernate.connection.password", getPassword());
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create");
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.addAnnotatedClass(User.class);
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("should migrate populated table into monthly partitions")
+    void install_MigratesPopulatedTable() {
+        User old = persist("old@example.com", now.minusMonths(3));
+        User recent = persist("recent@example.com", now);
+
+        UserPartitionManager manager = new UserPartitionManager(sessionFactory, 2, 24);
+        manager.install();
+        manager.install();
+
+        assertEquals("p", queryString("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('users')"));
+        assertEquals(2, count("SELECT COUNT(*) FROM users"));
+        assertEquals(1, count("SELECT COUNT(*) FROM " + partition(old.getCreatedAt())));
+        assertEquals(1, count("SELECT COUNT(*) FROM " + partition(recent.getCreatedAt())));
+        assertNotNull(queryString("SELECT to_regclass('" + partition(now.plusMonths(2)) + "')::text"));
+        assertEquals(2, count("SELECT COUNT(*) FROM user_emails"));
+
+        User next = persist("next@example.com", now);
+        assertTrue(next.getId() > recent.getId());
+    }
+
+    @Test
+    @DisplayName("should route rows without own partition into default partition")
+    void insert_MonthCoveredOnlyByDefault() {
+        new UserPartitionManager(sessionFactory, 1, 24).install();
+
+        persist("future@example.com", now.plusMonths(6));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM users_default"));
+        assertEquals(1, count("SELECT COUNT(*) FROM users"));
+    }
+
+    @Test
+    @DisplayName("should move matching rows out of default partition when creating new partition")
+    void ensureFuturePartitions_MovesRowsFromDefault() {
+        new UserPartitionManager(sessionFactory, 1, 24).install();
+        persist("future@example.com", now.plusMonths(3));
+        persist("later@example.com", now.plusMonths(8));
+
+        new UserPartitionManager(sessionFactory, 4, 24).ensureFuturePartitions();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM " + partition(now.plusMonths(3))));
+        assertEquals(1, count("SELECT COUNT(*) FROM users_default"));
+        assertEquals(2, count("SELECT COUNT(*) FROM users"));
+        assertEquals(2, count("SELECT COUNT(*) FROM user_emails"));
+    }
+
+    @Test
+    @DisplayName("should archive cold partitions and release their emails by default")
+    void archiveColdPartitions() {
+        User old = persist("old@example.com", now.minusMonths(6));
+        persist("recent@example.com", now);
+        UserPartitionManager manager = new UserPartitionManager(sessionFactory, 1, 3);
+        manager.install();
+
+        List<String> archived = manager.archiveColdPartitions();
+
+        assertEquals(List.of(partition(now.minusMonths(6)), partition(now.minusMonths(5)),
+                partition(now.minusMonths(4))), archived);
+        assertEquals(1, count("SELECT COUNT(*) FROM users"));
+        assertEquals(1, count("SELECT COUNT(*) FROM " + UserPartitionManager.ARCHIVE_SCHEMA + "."
+                + partition(old.getCreatedAt())));
+        assertDoesNotThrow(() -> persist("old@example.com", now));
+        assertTrue(manager.archiveColdPartitions().isEmpty());
+    }
+
+    @Test
+    @DisplayName("should hide archived users from DAO lookups")
+    void archiveColdPartitions_DaoReturnsNotFound() {
+        User old = persist("old@example.com", now.minusMonths(6));
+        User recent = persist("recent@example.com", now);
+        UserDAO userDAO = new UserDAOImpl(sessionFactory, false);
+        UserPartitionManager manager = new UserPartitionManager(sessionFactory, 1, 3);
+        manager.install();
+        assertTrue(userDAO.findById(old.getId()).isPresent());
+
+        manager.archiveColdPartitions();
+
+        assertTrue(userDAO.findById(old.getId()).isEmpty());
+        assertTrue(userDAO.findById(recent.getId()).isPresent());
+        assertEquals(List.of(recent.getId()), userDAO.findAll().stream().map(User::getId).toList());
+        assertFalse(userDAO.deleteById(old.getId()));
+    }
+
+    @Test
+    @DisplayName("should keep archived emails reserved until explicitly released")
+    void archiveColdPartitions_ReserveEmails() {
+        persist("old@example.com", now.minusMonths(6));
+        UserPartitionManager manager = new UserPartitionManager(sessionFactory, 1, 3, true);
+        manager.install();
+        manager.archiveColdPartitions();
+
+        assertThrows(RuntimeException.class, () -> persist("old@example.com", now));
+
+        assertEquals(1, manager.releaseArchivedEmails());
+        assertDoesNotThrow(() -> persist("old@example.com", now));
+    }
+
+    @Test
+    @DisplayName("should enforce unique email across partitions and free it on change and delete")
+    void emailTrigger() {
+        new UserPartitionManager(sessionFactory, 1, 24).install();
+        User user = persist("first@example.com", now.minusMonths(1));
+
+        assertThrows(RuntimeException.class, () -> persist("first@example.com", now));
+
+        user.setEmail("second@example.com");
+        inTransaction(session -> session.merge(user));
+        assertDoesNotThrow(() -> persist("first@example.com", now));
+        assertThrows(RuntimeException.class, () -> persist("second@example.com", now));
+
+        inTransaction(session -> session.remove(session.get(User.class, user.getId())));
+        assertDoesNotThrow(() -> persist("second@example.com", now));
+        assertEquals(2, count("SELECT COUNT(*) FROM user_emails"));
+    }
+
+    private User persist(String email, LocalDateTime createdAt) {
+        User user = new User("Partitioned", email, 30);
+        user.setCreatedAt(createdAt);
+        inTransaction(session -> session.persist(user));
+        return user;
+    }
+
+    private void inTransaction(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                work.accept(session);
+                transaction.commit();
+            } catch (RuntimeException e) {
+                if (transaction.isActive()) transaction.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long count(String sql) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery(sql, Long.class).getSingleResult();
+        }
+    }
+
+    private String queryString(String sql) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery(sql, String.class).getSingleResult();
+        }
+    }
+
+    private static String partition(LocalDateTime time) {
+        return UserPartitionManager.partitionName(YearMonth.from(time));
+    }
+}
@@ -0,0 +1,33 @@
+package userservice.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPartitionManagerTest {
+
+    @Test
+    @DisplayName("should map month to partition name and back")
+    void partitionName() {
+        String name = UserPartitionManager.partitionName(YearMonth.of(2024, 3));
+
+        assertEquals("users_p2024_03", name);
+        assertEquals(YearMonth.of(2024, 3), UserPartitionManager.monthOf(name));
+        assertNull(UserPartitionManager.monthOf("users_default"));
+    }
+
+    @Test
+    @DisplayName("should select only partitions older than retention")
+    void coldPartitions() {
+        List<String> partitions = List.of("users_p2024_01", "users_default", "users_p2023_11",
+                "users_p2024_02", "users_p2024_06");
+
+        List<String> cold = UserPartitionManager.coldPartitions(partitions, YearMonth.of(2024, 6), 4);
+
+        assertEquals(List.of("users_p2023_11", "users_p2024_01"), cold);
+    }
+}
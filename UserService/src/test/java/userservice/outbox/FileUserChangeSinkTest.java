@@ -0,0 +1,45 @@
+package userservice.outbox;
+
+import model.User;
+import model.UserChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileUserChangeSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("should append one JSON line per event across batches")
+    void deliver_AppendsJsonLines() throws Exception {
+        Path file = tempDir.resolve("user-changes.jsonl");
+        FileUserChangeSink sink = new FileUserChangeSink(file);
+
+        sink.deliver(List.of(event(1L, UserChangeEvent.Type.CREATED, "a\"b@example.com")));
+        sink.deliver(List.of(event(2L, UserChangeEvent.Type.DELETED, "c@example.com")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("{\"id\":1,\"userId\":10,\"type\":\"CREATED\",\"email\":\"a\\\"b@example.com\","
+                + "\"occurredAt\":\"2023-01-01T12:00\"}", lines.get(0));
+        assertTrue(lines.get(1).contains("\"type\":\"DELETED\""));
+    }
+
+    private static UserChangeEvent event(Long id, UserChangeEvent.Type type, String email) {
+        User user = new User("Test", email, 30);
+        user.setId(10L);
+        UserChangeEvent event = new UserChangeEvent(type, user);
+        event.setId(id);
+        event.setOccurredAt(LocalDateTime.of(2023, 1, 1, 12, 0));
+        return event;
+    }
+}
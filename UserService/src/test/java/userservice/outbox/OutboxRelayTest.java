@@ -0,0 +1,116 @@
+package userservice.outbox;
+
+import model.User;
+import model.UserChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import userservice.BaseIntegrationTest;
+import userservice.dao.UserDAO;
+import userservice.dao.UserDAOImpl;
+import util.HibernateUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+class OutboxRelayTest extends BaseIntegrationTest {
+    private UserDAO userDAO;
+    private final List<UserChangeEvent> delivered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        truncate();
+        userDAO = new UserDAOImpl(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        truncate();
+    }
+
+    @Test
+    @DisplayName("should write exactly one outbox row per save, update and delete")
+    void daoWritesOneRowPerChange() {
+        OutboxRelay relay = relay(delivered::addAll);
+
+        User user = userDAO.save(new User("Outbox", "outbox@example.com", 30));
+        assertEquals(1, relay.getPendingCount());
+
+        user.setName("Outbox Updated");
+        userDAO.update(user);
+        assertEquals(2, relay.getPendingCount());
+
+        userDAO.deleteById(user.getId());
+        assertEquals(3, relay.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("should not write outbox rows when outbox is disabled")
+    void daoWithoutOutbox() {
+        UserDAO plainDAO = new UserDAOImpl();
+        User user = plainDAO.save(new User("Plain", "plain@example.com", 30));
+        plainDAO.deleteById(user.getId());
+
+        assertEquals(0, relay(delivered::addAll).getPendingCount());
+    }
+
+    @Test
+    @DisplayName("should deliver events in ID order across batches and delete them")
+    void drain_DeliversInOrder() throws Exception {
+        User first = userDAO.save(new User("First", "first@example.com", 30));
+        User second = userDAO.save(new User("Second", "second@example.com", 31));
+        first.setAge(40);
+        userDAO.update(first);
+        userDAO.deleteById(second.getId());
+        OutboxRelay relay = relay(delivered::addAll);
+
+        assertEquals(4, relay.drain());
+
+        assertEquals(List.of(UserChangeEvent.Type.CREATED, UserChangeEvent.Type.CREATED,
+                        UserChangeEvent.Type.UPDATED, UserChangeEvent.Type.DELETED),
+                delivered.stream().map(UserChangeEvent::getType).toList());
+        assertEquals(List.of(first.getId(), second.getId(), first.getId(), second.getId()),
+                delivered.stream().map(UserChangeEvent::getUserId).toList());
+        for (int i = 1; i < delivered.size(); i++) {
+            assertTrue(delivered.get(i).getId() > delivered.get(i - 1).getId());
+        }
+        assertEquals(0, relay.getPendingCount());
+        assertEquals(4, relay.getDeliveredCount());
+        assertEquals(0, relay.drain());
+    }
+
+    @Test
+    @DisplayName("should keep events in outbox when sink fails")
+    void drain_SinkFails() {
+        userDAO.save(new User("First", "first@example.com", 30));
+        userDAO.save(new User("Second", "second@example.com", 31));
+        OutboxRelay relay = relay(events -> {
+            throw new IOException("sink unavailable");
+        });
+
+        assertThrows(IOException.class, relay::drain);
+
+        assertEquals(2, relay.getPendingCount());
+        assertEquals(1, relay.getFailedBatches());
+        assertEquals(0, relay.getDeliveredCount());
+    }
+
+    private static OutboxRelay relay(UserChangeSink sink) {
+        // Пачка меньше числа событий, чтобы drain прошёл несколько итераций
+        return new OutboxRelay(HibernateUtil.getSessionFactory(), List.of(sink), 3);
+    }
+
+    private static void truncate() {
+        try (var session = HibernateUtil.getSessionFactory().openSession()) {
+            session.beginTransaction();
+            session.createNativeMutationQuery("TRUNCATE TABLE users, user_outbox RESTART IDENTITY").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+}
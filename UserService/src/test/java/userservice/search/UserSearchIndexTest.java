@@ -0,0 +1,72 @@
+package userservice.search;
+
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSearchIndexTest {
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex();
+        index.add(user(1L, "Alexander Petrov", "alex.petrov@example.com"));
+        index.add(user(2L, "Alexandra Smirnova", "smirnova@mail.ru"));
+        index.add(user(3L, "Ivan Sidorov", "ivan@example.com"));
+        index.add(user(4L, "Фёдор Иванов", "fedor@mail.ru"));
+    }
+
+    @Test
+    @DisplayName("should find user by misspelled name")
+    void search_Misspelled() {
+        List<UserSearchResult> results = index.search("Alexandr Petrow", 3);
+
+        assertFalse(results.isEmpty());
+        assertEquals(1L, results.get(0).id());
+    }
+
+    @Test
+    @DisplayName("should find user by partial email and normalized Cyrillic")
+    void search_PartialEmailAndCyrillic() {
+        assertEquals(2L, index.search("smirnova@", 1).get(0).id());
+        assertEquals(4L, index.search("федор", 1).get(0).id());
+    }
+
+    @Test
+    @DisplayName("should reflect updates and deletions")
+    void search_AfterUpdateAndRemove() {
+        index.add(user(3L, "Ivan Kuznetsov", "ivan@example.com"));
+        index.remove(1L);
+
+        assertTrue(index.search("Sidorov", 5).stream().noneMatch(r -> r.id() == 3L));
+        assertEquals(3L, index.search("Kuznetsov", 1).get(0).id());
+        assertTrue(index.search("Alexander Petrov", 5).stream().noneMatch(r -> r.id() == 1L));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("should keep results after compaction")
+    void search_AfterCompaction() {
+        for (long id = 100; id < 3100; id++) {
+            index.add(user(id, "Temp User", "temp" + id + "@example.com"));
+        }
+        for (long id = 100; id < 3100; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(4, index.size());
+        assertEquals(3L, index.search("ivan sidorov", 1).get(0).id());
+        assertTrue(index.getMemoryFootprintBytes() > 0);
+    }
+
+    private static User user(Long id, String name, String email) {
+        User user = new User(name, email, 30);
+        user.setId(id);
+        return user;
+    }
+}
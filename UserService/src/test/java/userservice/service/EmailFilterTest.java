@@ -0,0 +1,53 @@
+package userservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailFilterTest {
+
+    @Test
+    @DisplayName("should never give false negatives for added emails")
+    void mightContain_AddedEmails() {
+        EmailFilter filter = new EmailFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+        assertTrue(filter.mightContain(" USER42@Example.com "));
+    }
+
+    @Test
+    @DisplayName("should keep false positive rate close to configured value")
+    void mightContain_FalsePositiveRate() {
+        EmailFilter filter = new EmailFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("should forget removed email without affecting others")
+    void remove() {
+        EmailFilter filter = new EmailFilter(100, 0.001);
+        filter.add("keep@example.com");
+        filter.add("gone@example.com");
+
+        filter.remove("gone@example.com");
+
+        assertFalse(filter.mightContain("gone@example.com"));
+        assertTrue(filter.mightContain("keep@example.com"));
+    }
+}
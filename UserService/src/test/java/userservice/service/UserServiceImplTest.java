@@ -7,7 +7,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import userservice.dao.DuplicateEmailException;
 import userservice.dao.UserDAO;
+import userservice.search.UserSearchIndex;
 
 import java.util.List;
 import java.util.Optional;
@@ -156,6 +158,38 @@ class UserServiceImplTest {
         verify(userDAO).deleteById(999L);
     }
 
+    @Test
+    @DisplayName("should forget email of deleted user in email filter")
+    void deleteUser_RemovesEmailFromFilter() {
+        EmailFilter filter = new EmailFilter(100, 0.001);
+        filter.add("test@example.com");
+        UserServiceImpl service = new UserServiceImpl(userDAO, filter);
+        when(userDAO.findById(1L)).thenReturn(Optional.of(validUser));
+        when(userDAO.deleteById(1L)).thenReturn(true);
+
+        assertTrue(service.deleteUser(1L));
+
+        assertFalse(filter.mightContain("test@example.com"));
+    }
+
+    @Test
+    @DisplayName("should not touch email filter when repeated delete finds no user")
+    void deleteUser_ReplayedDeleteKeepsOtherEmails() {
+        EmailFilter filter = new EmailFilter(100, 0.001);
+        filter.add("live@example.com");
+        UserServiceImpl service = new UserServiceImpl(userDAO, filter);
+        // Пользователь уже удалён до старта сервиса, его email в фильтр не попадал
+        when(userDAO.findById(2L)).thenReturn(Optional.empty());
+        when(userDAO.deleteById(2L)).thenReturn(false);
+
+        assertFalse(service.deleteUser(2L));
+        assertFalse(service.deleteUser(2L));
+
+        assertTrue(filter.mightContain("live@example.com"));
+        when(userDAO.existsByEmail("live@example.com")).thenReturn(true);
+        assertTrue(service.isEmailTaken("live@example.com"));
+    }
+
     @Test
     @DisplayName("should throw exception when deleting with invalid ID")
     void deleteUser_InvalidId() {
@@ -192,4 +226,104 @@ class UserServiceImplTest {
         verify(userDAO).findById(999L);
         verify(userDAO, never()).update(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should reject update to email owned by another user")
+    void updateUser_DuplicateEmail() {
+        when(userDAO.findById(1L)).thenReturn(Optional.of(validUser));
+        when(userDAO.existsByEmail("taken@example.com")).thenReturn(true);
+
+        assertThrows(DuplicateEmailException.class, () ->
+                userService.updateUser(1L, null, "taken@example.com", null)
+        );
+        verify(userDAO, never()).update(any());
+    }
+
+    @Test
+    @DisplayName("should skip database when email filter rules out duplicate")
+    void isEmailTaken_FilterNegative() {
+        EmailFilter filter = new EmailFilter(100, 0.01);
+        UserServiceImpl service = new UserServiceImpl(userDAO, filter);
+
+        assertFalse(service.isEmailTaken("free@example.com"));
+
+        verify(userDAO, never()).existsByEmail(anyString());
+        assertEquals(1, filter.getNegatives());
+    }
+
+    @Test
+    @DisplayName("should reject known duplicate email before saving")
+    void createUser_DuplicateEmail() {
+        EmailFilter filter = new EmailFilter(100, 0.01);
+        filter.add("test@example.com");
+        UserServiceImpl service = new UserServiceImpl(userDAO, filter);
+        when(userDAO.existsByEmail("test@example.com")).thenReturn(true);
+
+        assertThrows(DuplicateEmailException.class, () ->
+                service.createUser("Test", "test@example.com", 30)
+        );
+        verify(userDAO, never()).save(any());
+        assertEquals(1, filter.getTruePositives());
+    }
+
+    @Test
+    @DisplayName("should move email in filter when user email is updated")
+    void updateUser_MovesEmailInFilter() {
+        EmailFilter filter = new EmailFilter(100, 0.001);
+        filter.add("test@example.com");
+        UserServiceImpl service = new UserServiceImpl(userDAO, filter);
+        when(userDAO.findById(1L)).thenReturn(Optional.of(validUser));
+        when(userDAO.update(any(User.class))).thenReturn(true);
+
+        assertTrue(service.updateUser(1L, null, "new@example.com", null));
+
+        assertTrue(filter.mightContain("new@example.com"));
+        assertFalse(filter.mightContain("test@example.com"));
+    }
+
+    @Test
+    @DisplayName("should keep search index in sync with created, updated and deleted users")
+    void searchIndex_FollowsChanges() {
+        UserSearchIndex index = mock(UserSearchIndex.class);
+        UserServiceImpl service = new UserServiceImpl(userDAO, null, index);
+        when(userDAO.save(any(User.class))).thenReturn(validUser);
+        when(userDAO.findById(1L)).thenReturn(Optional.of(validUser));
+        when(userDAO.update(any(User.class))).thenReturn(true);
+        when(userDAO.deleteById(1L)).thenReturn(true);
+
+        service.createUser("Test", "test@example.com", 30);
+        verify(index).add(validUser);
+
+        service.updateUser(1L, "Renamed", null, null);
+        verify(index, times(2)).add(validUser);
+        assertEquals("Renamed", validUser.getName());
+
+        service.deleteUser(1L);
+        verify(index).remove(1L);
+        assertTrue(service.isSearchEnabled());
+    }
+
+    @Test
+    @DisplayName("should not touch search index when DAO call fails")
+    void searchIndex_SkippedOnFailure() {
+        UserSearchIndex index = mock(UserSearchIndex.class);
+        UserServiceImpl service = new UserServiceImpl(userDAO, null, index);
+        when(userDAO.save(any(User.class))).thenThrow(new RuntimeException("Failed to save user"));
+        when(userDAO.findById(1L)).thenReturn(Optional.of(validUser));
+        when(userDAO.update(any(User.class))).thenReturn(false);
+        when(userDAO.deleteById(1L)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> service.createUser("Test", "test@example.com", 30));
+        assertFalse(service.updateUser(1L, "Renamed", null, null));
+        assertFalse(service.deleteUser(1L));
+
+        verifyNoInteractions(index);
+    }
+
+    @Test
+    @DisplayName("should report search as disabled without index")
+    void searchUsers_Disabled() {
+        assertFalse(userService.isSearchEnabled());
+        assertThrows(IllegalStateException.class, () -> userService.searchUsers("test", 10));
+    }
+}
@@ -0,0 +1,68 @@
+package userservice.service;
+
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import userservice.BaseIntegrationTest;
+import userservice.dao.UserDAOImpl;
+import util.HibernateUtil;
+import util.QueryStats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static util.QueryAssertions.assertQueryCount;
+
+@Testcontainers
+class UserServiceQueryBudgetTest extends BaseIntegrationTest {
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        QueryStats.reset();
+        userService = new QueryStatsUserService(new UserServiceImpl(new UserDAOImpl(true)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        try (var session = HibernateUtil.getSessionFactory().openSession()) {
+            session.beginTransaction();
+            session.createNativeQuery("TRUNCATE TABLE users RESTART IDENTITY CASCADE", Integer.class).executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    @DisplayName("should create user in two statements")
+    void createUser() {
+        assertQueryCount(2, () -> userService.createUser("Test", "test@example.com", 30));
+    }
+
+    @Test
+    @DisplayName("should attribute statements to the service operation")
+    void operationStats() {
+        User user = userService.createUser("Test", "test@example.com", 30);
+        userService.getUserById(user.getId());
+
+        assertEquals(2, QueryStats.snapshot().get("createUser").getStatements());
+        assertEquals(1, QueryStats.snapshot().get("getUserById").getStatements());
+    }
+
+    @Test
+    @DisplayName("should update user in four statements")
+    void updateUser() {
+        User user = userService.createUser("Test", "test@example.com", 30);
+
+        // findById + SELECT при merge + UPDATE + INSERT в outbox
+        assertQueryCount(4, () -> userService.updateUser(user.getId(), "New", null, null));
+    }
+
+    @Test
+    @DisplayName("should delete user in three statements")
+    void deleteUser() {
+        User user = userService.createUser("Test", "test@example.com", 30);
+
+        assertQueryCount(3, () -> userService.deleteUser(user.getId()));
+    }
+}
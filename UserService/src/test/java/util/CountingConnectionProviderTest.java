@@ -0,0 +1,130 @@
+package util;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CountingConnectionProviderTest {
+
+    @AfterEach
+    void tearDown() {
+        QueryStats.reset();
+    }
+
+    @Test
+    @DisplayName("should count executed statements and bound parameters per operation")
+    void countsStatementsAndBinds() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement("SELECT * FROM users WHERE id = ?")).thenReturn(mock(PreparedStatement.class));
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        Connection counting = CountingConnectionProvider.wrap(connection);
+
+        try (QueryStats.Scope ignored = QueryStats.operation("findById")) {
+            PreparedStatement statement = counting.prepareStatement("SELECT * FROM users WHERE id = ?");
+            statement.setFetchSize(10);
+            statement.setLong(1, 42L);
+            statement.executeQuery();
+        }
+        counting.createStatement().execute("TRUNCATE TABLE users");
+
+        assertEquals(2, QueryStats.currentThread().getStatements());
+        assertEquals(1, QueryStats.currentThread().getBinds());
+        assertEquals(1, QueryStats.snapshot().get("findById").getStatements());
+        assertEquals(1, QueryStats.snapshot().get("findById").getBinds());
+        assertEquals(1, QueryStats.snapshot().get("other").getStatements());
+    }
+
+    @Test
+    @DisplayName("should count statements above threshold as slow")
+    void countsSlowStatements() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        QueryStats.setSlowQueryThreshold(0);
+        try {
+            CountingConnectionProvider.wrap(connection).createStatement().executeUpdate("DELETE FROM users");
+        } finally {
+            QueryStats.setSlowQueryThreshold(500);
+        }
+
+        assertEquals(1, QueryStats.snapshot().get("other").getSlowStatements());
+    }
+
+    @Test
+    @DisplayName("should hand out wrapped connections and return originals to the delegate pool")
+    void delegatesToConfiguredProvider() throws Exception {
+        ConnectionProvider delegate = mock(ConnectionProvider.class);
+        Connection connection = mock(Connection.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        CountingConnectionProvider provider = new CountingConnectionProvider(delegate);
+
+        Connection counting = provider.getConnection();
+        provider.closeConnection(counting);
+
+        assertNotSame(connection, counting);
+        verify(delegate).closeConnection(connection);
+    }
+
+    @Test
+    @DisplayName("should create and configure delegate provider from settings")
+    void configure_CreatesDelegate() {
+        CountingConnectionProvider provider = new CountingConnectionProvider();
+
+        provider.configure(Map.of(CountingConnectionProvider.DELEGATE_PROVIDER, RecordingProvider.class.getName()));
+
+        assertTrue(provider.isUnwrappableAs(RecordingProvider.class));
+        assertTrue(provider.unwrap(RecordingProvider.class).configured);
+        assertThrows(IllegalStateException.class, () ->
+                new CountingConnectionProvider().configure(Map.of(CountingConnectionProvider.DELEGATE_PROVIDER, "missing.Provider")));
+    }
+
+    @Test
+    @DisplayName("should fail when statement budget is exceeded")
+    void assertQueryCount() {
+        assertThrows(AssertionError.class, () ->
+                QueryAssertions.assertQueryCount(0, () -> QueryStats.record("SELECT 1", 0, 0))
+        );
+    }
+
+    public static class RecordingProvider implements ConnectionProvider, Configurable {
+        private boolean configured;
+
+        @Override
+        public void configure(Map<String, Object> configurationValues) {
+            configured = true;
+        }
+
+        @Override
+        public Connection getConnection() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void closeConnection(Connection connection) {
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return false;
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class<?> unwrapType) {
+            return unwrapType.isInstance(this);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> unwrapType) {
+            return unwrapType.cast(this);
+        }
+    }
+}
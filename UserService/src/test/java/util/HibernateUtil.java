@@ -1,6 +1,7 @@
 package util;
 
 import model.User;
+import model.UserChangeEvent;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import userservice.BaseIntegrationTest;
@@ -22,7 +23,8 @@ public class HibernateUtil {
     private static boolean isTestEnvironment() {
         // Определяем тестовую среду по наличию класса BaseIntegrationTest
         try {
-            Class.forName("userservice.BaseIntegrationTest");
+            // Без инициализации класса: она запускает контейнер PostgreSQL
+            Class.forName("userservice.BaseIntegrationTest", false, HibernateUtil.class.getClassLoader());
             return true;
         } catch (ClassNotFoundException e) {
             return false;
@@ -37,7 +39,9 @@ public class HibernateUtil {
         configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
         configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         configuration.setProperty("hibernate.show_sql", "false");
+        configuration.setProperty("hibernate.connection.provider_class", CountingConnectionProvider.class.getName());
         configuration.addAnnotatedClass(User.class);
+        configuration.addAnnotatedClass(UserChangeEvent.class);
         return configuration.buildSessionFactory();
     }
 
@@ -0,0 +1,24 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    public static void assertQueryCount(int expected, Runnable action) {
+        QueryStats.resetCurrentThread();
+        action.run();
+        assertEquals(expected, QueryStats.currentThread().getStatements(),
+                "Unexpected number of SQL statements");
+    }
+
+    public static void assertMaxQueryCount(int max, Runnable action) {
+        QueryStats.resetCurrentThread();
+        action.run();
+        int actual = QueryStats.currentThread().getStatements();
+        assertTrue(actual <= max, "Expected at most " + max + " SQL statements, but was " + actual);
+    }
+}